@@ -0,0 +1,31 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.service.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Concurrency limit in front of booking. The maximum should stay below the connection pool size,
+ * so that however saturated booking gets, searches still find a free connection. Per-user rate
+ * limits live in {@code RateLimitFilter}.
+ */
+@Configuration
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter bookingLimiter(@Value("${admission.booking.initial-limit:4}") int initialLimit,
+                                                     @Value("${admission.booking.min-limit:1}") int minLimit,
+                                                     @Value("${admission.booking.max-limit:8}") int maxLimit,
+                                                     @Value("${admission.booking.target-latency-ms:250}") long targetLatencyMs,
+                                                     @Value("${admission.booking.max-queue:64}") int maxQueue,
+                                                     @Value("${admission.booking.max-queue-wait-ms:100}") long maxQueueWaitMs,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("booking", initialLimit, minLimit, maxLimit,
+                targetLatencyMs, maxQueue, maxQueueWaitMs);
+        meterRegistry.ifAvailable(limiter::bindTo);
+        return limiter;
+    }
+}
\ No newline at end of file
@@ -3,8 +3,16 @@ package com.busbooking.bus_booking_system.config;
 import com.busbooking.bus_booking_system.entity.Bus;
 import com.busbooking.bus_booking_system.entity.User;
 import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRow;
 import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.service.BusService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -13,21 +21,40 @@ import java.time.LocalDateTime;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
+    // Tables whose ids moved from IDENTITY columns to pooled sequences (allocationSize 50)
+    private static final String[][] ID_SEQUENCES = {
+            {"\"user\"", "user_seq"}, {"bus", "bus_seq"}, {"booking", "booking_seq"}, {"passenger", "passenger_seq"}
+    };
+
     private final UserRepository userRepository;
     private final BusRepository busRepository;
+    private final PassengerRepository passengerRepository;
+    private final BusService busService;
     private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
 
     public DataInitializer(UserRepository userRepository,
                            BusRepository busRepository,
-                           PasswordEncoder passwordEncoder) {
+                           PassengerRepository passengerRepository,
+                           BusService busService,
+                           PasswordEncoder passwordEncoder,
+                           JdbcTemplate jdbcTemplate) {
         this.userRepository = userRepository;
         this.busRepository = busRepository;
+        this.passengerRepository = passengerRepository;
+        this.busService = busService;
         this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
     public void run(String... args) {
 
+        // ✅ 0. Move id sequences past rows that were inserted with IDENTITY ids
+        alignIdSequences();
+
         // ✅ 1. Create ADMIN user if not exists
         userRepository.findByEmail("admin@bus.com")
                 .orElseGet(() -> {
@@ -49,7 +76,44 @@ public class DataInitializer implements CommandLineRunner {
             bus.setPrice(850);
             bus.setAvailableSeats(40);
 
-            busRepository.save(bus);
+            busService.saveBus(bus);
+        }
+
+        // ✅ 3. Attach seat claims to passengers booked before bus_id was tracked
+        backfillSeatClaims();
+
+        // ✅ 4. Give buses saved before route keys existed the keys the route search matches on
+        int keyed = busRepository.backfillRouteKeys();
+        if (keyed > 0) {
+            logger.info("Backfilled route keys of {} buses", keyed);
+        }
+    }
+
+    // Old data may already sell a seat twice; those later passengers stay unclaimed instead of
+    // breaking uk_passenger_bus_seat, and are logged for someone to rebook
+    private void backfillSeatClaims() {
+        for (PassengerRow duplicate : passengerRepository.findDuplicateSeatsToBackfill()) {
+            logger.warn("Seat {} of passenger {} in booking {} is already taken by an earlier booking; left without a seat claim",
+                    duplicate.seatNumber(), duplicate.id(), duplicate.bookingId());
+        }
+        int claimed = passengerRepository.backfillSeatClaims();
+        if (claimed > 0) {
+            logger.info("Backfilled {} seat claims", claimed);
+        }
+    }
+
+    private void alignIdSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        for (String[] idSequence : ID_SEQUENCES) {
+            String table = idSequence[0];
+            String sequence = idSequence[1];
+            // Only ever moves a sequence forward; the margin covers one pooled block
+            jdbcTemplate.query("select setval('" + sequence + "', (select max(id) from " + table + ") + 50) "
+                            + "where (select max(id) from " + table + ") + 50 > (select last_value from " + sequence + ")",
+                    (RowCallbackHandler) rs -> logger.info("Advanced {} to {}", sequence, rs.getLong(1)));
         }
     }
 }
@@ -0,0 +1,70 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.controller.BookingHistoryResponse;
+import com.busbooking.bus_booking_system.controller.BookingResponse;
+import com.busbooking.bus_booking_system.controller.BusResponse;
+import com.busbooking.bus_booking_system.controller.JourneyResponse;
+import com.busbooking.bus_booking_system.controller.PassengerResponse;
+import com.busbooking.bus_booking_system.controller.UserProfileResponse;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Response encodings besides JSON. Clients that send {@code Accept: application/cbor} or
+ * {@code application/x-jackson-smile} get the same documents in a compact binary form; everyone
+ * else keeps JSON. All three mappers come from Spring Boot's builder, so dates and features match,
+ * and share the Blackbird module, which replaces reflective getter calls with generated lambdas.
+ * Gzip above a size threshold is configured under {@code server.compression}.
+ */
+@Configuration
+public class ResponseEncodingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseEncodingConfig.class);
+
+    // Response types of the high-volume endpoints, resolved once at startup instead of on first use
+    private static final List<Class<?>> RESPONSE_TYPES = List.of(BusResponse.class, BookingResponse.class,
+            BookingHistoryResponse.class, JourneyResponse.class, PassengerResponse.class, UserProfileResponse.class);
+
+    // Picked up by Spring Boot for every ObjectMapper it builds
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Replace the defaults Spring MVC would otherwise build without Boot's Jackson settings
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> serializerWarmUp(List<AbstractJackson2HttpMessageConverter> converters) {
+        return event -> {
+            for (AbstractJackson2HttpMessageConverter converter : converters) {
+                ObjectMapper objectMapper = converter.getObjectMapper();
+                RESPONSE_TYPES.forEach(objectMapper::writerFor);
+            }
+            logger.info("Prepared {} serializers for {} response encodings", RESPONSE_TYPES.size(), converters.size());
+        };
+    }
+}
\ No newline at end of file
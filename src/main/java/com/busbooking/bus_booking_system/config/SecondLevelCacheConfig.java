@@ -0,0 +1,80 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for {@code Bus} and {@code User}, held in bounded, expiring
+ * Caffeine caches behind JCache. Every region is created here with its own size and TTL; an
+ * unconfigured region fails startup instead of silently growing without bounds. Hit and miss
+ * counts are published as {@code cache.gets} tagged with the region name.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheConfig.class);
+
+    public static final String BUS_REGION = "bus";
+    public static final String USER_REGION = "user";
+    public static final String USER_BY_EMAIL_REGION = "user-by-email";
+
+    // Each application context gets its own manager, so parallel test contexts never share regions
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${entity-cache.bus.max-size:10000}") long busMaxSize,
+                                              @Value("${entity-cache.bus.ttl-seconds:300}") long busTtlSeconds,
+                                              @Value("${entity-cache.user.max-size:10000}") long userMaxSize,
+                                              @Value("${entity-cache.user.ttl-seconds:600}") long userTtlSeconds,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), SecondLevelCacheConfig.class.getClassLoader());
+        createRegion(cacheManager, BUS_REGION, busMaxSize, busTtlSeconds, meterRegistry);
+        createRegion(cacheManager, USER_REGION, userMaxSize, userTtlSeconds, meterRegistry);
+        createRegion(cacheManager, USER_BY_EMAIL_REGION, userMaxSize, userTtlSeconds, meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxSize, long ttlSeconds,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        // Hibernate already stores immutable, disassembled state; copying it on every access buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+        meterRegistry.ifAvailable(registry -> JCacheMetrics.monitor(registry, cache, Tags.of("layer", "hibernate")));
+        logger.info("Second-level cache region '{}': max {} entries, {}s TTL", region, maxSize, ttlSeconds);
+    }
+}
\ No newline at end of file
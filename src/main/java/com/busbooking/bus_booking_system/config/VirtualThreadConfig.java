@@ -0,0 +1,40 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot already moves Tomcat,
+ * {@code @Async} and the MVC async executor onto virtual threads; here the connection pool is
+ * fronted by a {@link ConnectionLimitingDataSource} sized to the pool, so it stays the single
+ * concurrency limit. The booking shards, the hold timer and the password hashing pool keep their
+ * platform threads on purpose: they are long-lived or CPU-bound.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        long acquireTimeoutMs = environment.getProperty("booking.datasource.acquire-timeout-ms", Long.class, 2000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    logger.info("Virtual threads enabled: limiting {} to {} concurrent connections", beanName, hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -3,8 +3,12 @@ package com.busbooking.bus_booking_system.controller;
 import com.busbooking.bus_booking_system.entity.User;
 import com.busbooking.bus_booking_system.repository.UserRepository;
 import com.busbooking.bus_booking_system.security.JwtUtil;
+import com.busbooking.bus_booking_system.security.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -44,12 +48,28 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        } catch (InternalAuthenticationServiceException e) {
+            // The provider wraps failures from the unknown-user path; unwrap a saturated hashing pool
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                throw rejected;
+            }
+            throw e;
+        }
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String jwt = jwtUtil.generateToken(userDetails);
         return ResponseEntity.ok(new JwtResponse(jwt));
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> hashingBusy(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
 }
 
 // Update LoginRequest to use email
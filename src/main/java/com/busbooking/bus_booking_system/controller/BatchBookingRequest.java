@@ -0,0 +1,10 @@
+package com.busbooking.bus_booking_system.controller;
+
+import java.util.List;
+
+public class BatchBookingRequest {
+    private List<BookingRequest> bookings; // one (busId, passengers) group per bus
+
+    public List<BookingRequest> getBookings() { return bookings; }
+    public void setBookings(List<BookingRequest> bookings) { this.bookings = bookings; }
+}
\ No newline at end of file
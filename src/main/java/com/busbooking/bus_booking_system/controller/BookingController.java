@@ -1,14 +1,21 @@
 package com.busbooking.bus_booking_system.controller;
 
 import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.service.AdaptiveConcurrencyLimiter;
+import com.busbooking.bus_booking_system.service.BookingOutcomeUnknownException;
 import com.busbooking.bus_booking_system.service.BookingService;
+import com.busbooking.bus_booking_system.service.BookingUnavailableException;
+import com.busbooking.bus_booking_system.service.IdempotencyStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -17,32 +24,123 @@ public class BookingController {
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
 
     private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
+    private final AdaptiveConcurrencyLimiter bookingLimiter;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyStore idempotencyStore,
+                             AdaptiveConcurrencyLimiter bookingLimiter) {
         this.bookingService = bookingService;
+        this.idempotencyStore = idempotencyStore;
+        this.bookingLimiter = bookingLimiter;
     }
 
+    // A retry carrying the same Idempotency-Key gets the first attempt's response instead of booking again
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestBody BookingRequest bookingRequest, Authentication authentication) {
+    public ResponseEntity<?> createBooking(@RequestBody BookingRequest bookingRequest,
+                                           @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                           Authentication authentication) {
         String email = authentication.getName();
+        if (idempotencyKey == null) {
+            try {
+                return book(bookingRequest, email);
+            } catch (IdempotencyStore.OutcomePendingException e) {
+                return e.getResponse();
+            }
+        }
         try {
-            Booking booking = bookingService.createBooking(bookingRequest, email);
-            return ResponseEntity.ok(booking);
+            return idempotencyStore.execute(email, idempotencyKey, bookingRequest, () -> book(bookingRequest, email));
         } catch (RuntimeException e) {
             logger.error("Booking failed for user {}: {}", email, e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // A 503 is never remembered under an idempotency key, so the client's retry gets a real attempt.
+    // A booking that may still commit keeps its key until it settles, and retries replay the result
+    private ResponseEntity<?> book(BookingRequest bookingRequest, String email) {
+        try (AdaptiveConcurrencyLimiter.Permit permit = bookingLimiter.tryAcquire()) {
+            if (permit == null) {
+                return overloaded(email);
+            }
+            Booking booking = bookingService.createBooking(bookingRequest, email);
+            return ResponseEntity.ok(BookingResponse.of(booking));
+        } catch (BookingOutcomeUnknownException e) {
+            logger.warn("Booking outcome unknown for user {}: {}", email, e.getMessage());
+            throw new IdempotencyStore.OutcomePendingException(unavailable(e.getMessage()), e.getOutcome()
+                    .<ResponseEntity<?>>thenApply(booking -> ResponseEntity.ok(BookingResponse.of(booking)))
+                    .exceptionally(failure -> failed(email, failure instanceof CompletionException ? failure.getCause() : failure)));
         } catch (Exception e) {
-            logger.error("Internal server error during booking for user {}: {}", email, e.getMessage());
-            return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
+            return failed(email, e);
+        }
+    }
+
+    private ResponseEntity<?> failed(String email, Throwable e) {
+        if (e instanceof BookingUnavailableException) {
+            logger.warn("Booking unavailable for user {}: {}", email, e.getMessage());
+            return unavailable(e.getMessage());
+        }
+        if (e instanceof RuntimeException) {
+            logger.error("Booking failed for user {}: {}", email, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.error("Internal server error during booking for user {}: {}", email, e.getMessage());
+        return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
+    }
+
+    // Several (busId, passengers) groups booked together: either all of them or none
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(@RequestBody BatchBookingRequest batchRequest, Authentication authentication) {
+        String email = authentication.getName();
+        try (AdaptiveConcurrencyLimiter.Permit permit = bookingLimiter.tryAcquire()) {
+            if (permit == null) {
+                return overloaded(email);
+            }
+            List<Booking> bookings = bookingService.createBookings(batchRequest.getBookings(), email);
+            return ResponseEntity.ok(bookings.stream().map(BookingResponse::of).toList());
+        } catch (BookingUnavailableException e) {
+            logger.warn("Batch booking unavailable for user {}: {}", email, e.getMessage());
+            return unavailable(e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Batch booking failed for user {}: {}", email, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<String> overloaded(String email) {
+        logger.warn("Shedding booking request of user {}: {} in flight", email, bookingLimiter.inFlight());
+        return unavailable("Booking service is busy, please try again");
+    }
+
+    private static ResponseEntity<String> unavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(message);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelBooking(@PathVariable Long id, Authentication authentication) {
+        String email = authentication.getName();
+        try {
+            bookingService.cancelBooking(id, email);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            logger.error("Cancelling booking {} failed for user {}: {}", id, email, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<Booking>> getBookingHistory(Authentication authentication) {
+    public ResponseEntity<List<BookingHistoryResponse>> getBookingHistory(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "50") int limit,
+                                                                          Authentication authentication) {
         String email = authentication.getName();
         try {
-            List<Booking> bookings = bookingService.getBookingHistory(email);
-            return ResponseEntity.ok(bookings);
+            BookingService.HistoryPage page = bookingService.getBookingHistory(email, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(BusController.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.bookings());
         } catch (RuntimeException e) {
             logger.error("Failed to fetch booking history for user {}: {}", email, e.getMessage());
             return ResponseEntity.badRequest().body(null);
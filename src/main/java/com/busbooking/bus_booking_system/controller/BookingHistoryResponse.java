@@ -0,0 +1,19 @@
+package com.busbooking.bus_booking_system.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking history entry. Keeps the field names of the {@code Booking} entity the frontend already
+ * reads ({@code bus.fromLocation}, {@code status}, ...) but never carries the user.
+ */
+public record BookingHistoryResponse(Long id, LocalDateTime bookingTime, String status,
+                                     BusSummary bus, List<PassengerSummary> passengers) {
+
+    public record BusSummary(Long id, String fromLocation, String toLocation,
+                             LocalDateTime departureTime, LocalDateTime arrivalTime, double price) {
+    }
+
+    public record PassengerSummary(Long id, String name, int age, String seatNumber) {
+    }
+}
\ No newline at end of file
@@ -5,9 +5,12 @@ import java.util.List;
 public class BookingRequest {
     private Long busId;
     private List<PassengerRequest> passengers;
+    private String holdId; // optional: confirm seats held via POST /api/buses/{id}/holds
 
     public Long getBusId() { return busId; }
     public void setBusId(Long busId) { this.busId = busId; }
     public List<PassengerRequest> getPassengers() { return passengers; }
     public void setPassengers(List<PassengerRequest> passengers) { this.passengers = passengers; }
+    public String getHoldId() { return holdId; }
+    public void setHoldId(String holdId) { this.holdId = holdId; }
 }
\ No newline at end of file
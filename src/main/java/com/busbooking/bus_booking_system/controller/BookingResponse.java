@@ -0,0 +1,21 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A booking just made. Same field names as the {@code Booking} entity, but the user is left out
+ * and passengers do not point back at the booking. Built from the state the booking was written
+ * with, so mapping never triggers a lazy load.
+ */
+public record BookingResponse(Long id, LocalDateTime bookingTime, String status,
+                              BusResponse bus, List<PassengerResponse> passengers) {
+
+    public static BookingResponse of(Booking booking) {
+        return new BookingResponse(booking.getId(), booking.getBookingTime(), booking.getStatus(),
+                BusResponse.of(booking.getBus()),
+                booking.getPassengers().stream().map(PassengerResponse::of).toList());
+    }
+}
\ No newline at end of file
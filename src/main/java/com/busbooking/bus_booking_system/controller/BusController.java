@@ -1,33 +1,199 @@
 package com.busbooking.bus_booking_system.controller;
 
+import com.busbooking.bus_booking_system.config.AsyncTimeoutConfig;
 import com.busbooking.bus_booking_system.entity.Bus;
 import com.busbooking.bus_booking_system.service.BusService;
+import com.busbooking.bus_booking_system.service.RouteIndex;
+import com.busbooking.bus_booking_system.service.SeatAvailabilityPublisher;
+import com.busbooking.bus_booking_system.service.SeatHoldService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/buses")
 public class BusController {
 
+    private static final Logger logger = LoggerFactory.getLogger(BusController.class);
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String SMILE = "application/x-jackson-smile";
+
     private final BusService busService;
+    private final SeatHoldService seatHoldService;
+    private final SeatAvailabilityPublisher seatAvailabilityPublisher;
+    private final ObjectMapper objectMapper;
+    private final long streamTimeoutMs;
 
-    public BusController(BusService busService) {
+    public BusController(BusService busService, SeatHoldService seatHoldService,
+                         SeatAvailabilityPublisher seatAvailabilityPublisher, ObjectMapper objectMapper,
+                         @Value("${booking.buses.stream.timeout-ms:600000}") long streamTimeoutMs) {
         this.busService = busService;
+        this.seatHoldService = seatHoldService;
+        this.seatAvailabilityPublisher = seatAvailabilityPublisher;
+        this.objectMapper = objectMapper;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     @GetMapping
-    public ResponseEntity<List<Bus>> getBuses(@RequestParam(required = false) String from, @RequestParam(required = false) String to) {
-        if (from != null && to != null) {
-            return ResponseEntity.ok(busService.findBuses(from, to));
-        } else {
-            return ResponseEntity.ok(busService.findAllBuses());
+    public ResponseEntity<?> getBuses(@RequestParam(required = false) String from, @RequestParam(required = false) String to,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departFrom,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departTo,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                      @RequestParam(required = false) Double maxPrice,
+                                      @RequestParam(required = false) Integer minSeats,
+                                      @RequestParam(required = false) String sort,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "50") int limit,
+                                      WebRequest webRequest) {
+        try {
+            // Filters and orders only apply to a route; dropping them would quietly list every bus
+            if ((from == null || to == null) && (from != null || to != null || departFrom != null || departTo != null
+                    || date != null || maxPrice != null || minSeats != null || sort != null)) {
+                throw new IllegalArgumentException("from and to are required to filter or sort buses");
+            }
+            if (from != null && to != null) {
+                // A whole travel date is shorthand for a departure window over that day
+                if (date != null) {
+                    departFrom = departFrom != null ? departFrom : date.atStartOfDay();
+                    departTo = departTo != null ? departTo : date.atTime(LocalTime.MAX);
+                }
+                BusService.BusSearch search = new BusService.BusSearch(from, to, departFrom, departTo,
+                        maxPrice, minSeats, BusService.parseSort(sort));
+                // Read before searching: a change in between leaves an older tag on newer results, never the reverse
+                String version = busService.routeVersion(from, to);
+                if (version == null) {
+                    return ResponseEntity.ok(toResponses(busService.findBuses(search)));
+                }
+                // Weak: Tomcat will not gzip a response carrying a strong tag, and search results are the large ones
+                String etag = "W/\"" + representationTag(version, webRequest) + "\"";
+                if (webRequest.checkNotModified(etag)) {
+                    return null;
+                }
+                return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                        .body(toResponses(busService.findBuses(search)));
+            }
+            BusService.BusPage page = busService.findBusPage(cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(toResponses(page.buses()));
+        } catch (RuntimeException e) {
+            logger.error("Failed to list buses: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Whole timetable as newline-delimited JSON, written row by row from a database cursor
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBuses(WebRequest webRequest) {
+        webRequest.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, streamTimeoutMs, RequestAttributes.SCOPE_REQUEST);
+        StreamingResponseBody body = out -> busService.streamBuses(bus -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(BusResponse.of(bus)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // Direct and connecting trips: fewest transfers first, earliest arrival last
+    @GetMapping("/journeys")
+    public ResponseEntity<?> planJourneys(@RequestParam String from, @RequestParam String to,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departAfter,
+                                          @RequestParam(defaultValue = "1") int passengers) {
+        try {
+            return ResponseEntity.ok(busService.planJourneys(from, to, departAfter, passengers).stream()
+                    .map(JourneyResponse::of).toList());
+        } catch (RuntimeException e) {
+            logger.error("Journey planning from {} to {} failed: {}", from, to, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Answers If-None-Match from the in-memory version, without loading or serializing the bus
     @GetMapping("/{id}")
-    public ResponseEntity<Bus> getBusById(@PathVariable Long id) {
-        return ResponseEntity.ok(busService.findById(id));
+    public ResponseEntity<BusResponse> getBusById(@PathVariable Long id, WebRequest webRequest) {
+        String version = busService.busVersion(id);
+        if (version != null && webRequest.checkNotModified(representationTag(version, webRequest))) {
+            return null;
+        }
+        Bus bus = busService.findById(id);
+        return ResponseEntity.ok().eTag(representationTag(RouteIndex.versionOf(bus), webRequest))
+                .varyBy(HttpHeaders.ACCEPT).body(BusResponse.of(bus));
+    }
+
+    // Seat occupancy snapshot followed by coalesced deltas, as Server-Sent Events
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeats(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(seatAvailabilityPublisher.subscribe(id));
+        } catch (RuntimeException e) {
+            logger.error("Seat stream for bus {} failed: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/holds")
+    public ResponseEntity<?> holdSeats(@PathVariable Long id, @RequestBody SeatHoldRequest holdRequest, Authentication authentication) {
+        String email = authentication.getName();
+        try {
+            return ResponseEntity.ok(seatHoldService.hold(id, holdRequest.getSeats(), email));
+        } catch (RuntimeException e) {
+            logger.error("Seat hold failed for user {} on bus {}: {}", email, id, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@PathVariable Long id, @PathVariable String holdId, Authentication authentication) {
+        String email = authentication.getName();
+        try {
+            seatHoldService.release(holdId, id, email);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            logger.error("Releasing hold {} failed for user {}: {}", holdId, email, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // JSON, CBOR and Smile bodies of one version differ byte for byte, so each gets its own strong tag
+    private static String representationTag(String version, WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            if (accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+                return version + ".cbor";
+            }
+            if (accept.contains(SMILE)) {
+                return version + ".smile";
+            }
+        }
+        return version;
+    }
+
+    private static List<BusResponse> toResponses(List<Bus> buses) {
+        return buses.stream().map(BusResponse::of).toList();
     }
 }
\ No newline at end of file
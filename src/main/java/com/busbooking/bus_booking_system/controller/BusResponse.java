@@ -0,0 +1,17 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bus as the API returns it: the columns the frontend reads, without the entity version.
+ */
+public record BusResponse(Long id, String fromLocation, String toLocation,
+                          LocalDateTime departureTime, LocalDateTime arrivalTime, double price, int availableSeats) {
+
+    public static BusResponse of(Bus bus) {
+        return new BusResponse(bus.getId(), bus.getFromLocation(), bus.getToLocation(),
+                bus.getDepartureTime(), bus.getArrivalTime(), bus.getPrice(), bus.getAvailableSeats());
+    }
+}
\ No newline at end of file
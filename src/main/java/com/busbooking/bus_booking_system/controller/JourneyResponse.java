@@ -0,0 +1,18 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.service.JourneyPlanner;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A planned journey: its buses in travel order, each as a {@link BusResponse}.
+ */
+public record JourneyResponse(LocalDateTime departureTime, LocalDateTime arrivalTime, int transfers,
+                              List<BusResponse> legs) {
+
+    public static JourneyResponse of(JourneyPlanner.Journey journey) {
+        return new JourneyResponse(journey.departureTime(), journey.arrivalTime(), journey.transfers(),
+                journey.legs().stream().map(BusResponse::of).toList());
+    }
+}
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.busbooking.bus_booking_system.controller;
 
-import com.busbooking.bus_booking_system.entity.Passenger;
 import com.busbooking.bus_booking_system.service.PassengerService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,7 +17,7 @@ public class PassengerController {
     }
 
     @GetMapping("/booking/{bookingId}")
-    public ResponseEntity<List<Passenger>> getPassengersByBooking(@PathVariable Long bookingId) {
-        return ResponseEntity.ok(passengerService.findByBookingId(bookingId));
+    public ResponseEntity<List<PassengerResponse>> getPassengersByBooking(@PathVariable Long bookingId) {
+        return ResponseEntity.ok(passengerService.findByBookingId(bookingId).stream().map(PassengerResponse::of).toList());
     }
 }
\ No newline at end of file
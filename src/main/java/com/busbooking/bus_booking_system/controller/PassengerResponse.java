@@ -0,0 +1,13 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.Passenger;
+
+/**
+ * A passenger without the back references to its booking and bus.
+ */
+public record PassengerResponse(Long id, String name, int age, String seatNumber) {
+
+    public static PassengerResponse of(Passenger passenger) {
+        return new PassengerResponse(passenger.getId(), passenger.getName(), passenger.getAge(), passenger.getSeatNumber());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.busbooking.bus_booking_system.controller;
+
+import java.util.List;
+
+public class SeatHoldRequest {
+    private List<String> seats;
+
+    public List<String> getSeats() { return seats; }
+    public void setSeats(List<String> seats) { this.seats = seats; }
+}
\ No newline at end of file
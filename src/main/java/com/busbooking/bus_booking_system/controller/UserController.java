@@ -21,11 +21,11 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<User> getUserProfile(Authentication authentication) {
+    public ResponseEntity<UserProfileResponse> getUserProfile(Authentication authentication) {
         String email = authentication.getName();
         try {
             User user = userService.getUserProfile(email);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserProfileResponse.of(user));
         } catch (RuntimeException e) {
             logger.error("Failed to fetch profile for user {}: {}", email, e.getMessage());
             return ResponseEntity.badRequest().body(null); // Return null body with 400 status
@@ -36,11 +36,11 @@ public class UserController {
     }
 
     @PutMapping("/profile")
-    public ResponseEntity<User> updateUserProfile(@RequestBody UserUpdateRequest updateRequest, Authentication authentication) {
+    public ResponseEntity<UserProfileResponse> updateUserProfile(@RequestBody UserUpdateRequest updateRequest, Authentication authentication) {
         String email = authentication.getName();
         try {
             User user = userService.updateProfile(email, updateRequest);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserProfileResponse.of(user));
         } catch (RuntimeException e) {
             logger.error("Failed to update profile for user {}: {}", email, e.getMessage());
             return ResponseEntity.badRequest().body(null); // Return null body with 400 status
@@ -0,0 +1,13 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.User;
+
+/**
+ * Profile fields only; the password hash and the Spring Security account flags stay on the server.
+ */
+public record UserProfileResponse(Long id, String name, String email, String role) {
+
+    public static UserProfileResponse of(User user) {
+        return new UserProfileResponse(user.getId(), user.getName(), user.getEmail(), user.getRole());
+    }
+}
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.busbooking.bus_booking_system.entity;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_booking_user_time", columnList = "user_id, bookingTime, id"))
 @Data
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -24,6 +29,10 @@ public class Booking {
     private LocalDateTime bookingTime;
     private String status; // e.g., "CONFIRMED", "CANCELLED"
 
+    // Excluded like Passenger.booking: equals/hashCode/toString must not walk or initialize the collection
+    @JsonManagedReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL)
     private List<Passenger> passengers;
 }
\ No newline at end of file
@@ -2,19 +2,63 @@ package com.busbooking.bus_booking_system.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_bus_departure_id", columnList = "departureTime, id"),
+        @Index(name = "idx_bus_route_key_departure", columnList = "fromKey, toKey, departureTime")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bus")
 @Data
 public class Bus {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bus_seq")
+    @SequenceGenerator(name = "bus_seq", sequenceName = "bus_seq", allocationSize = 50)
     private Long id;
     private String fromLocation;
     private String toLocation;
     private LocalDateTime departureTime;
     private LocalDateTime arrivalTime;
     private double price;
+
+    // Locations as the route search matches them (see locationKey), so the database search agrees
+    // with RouteIndex and can still range-scan idx_bus_route_key_departure
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String fromKey;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String toKey;
+
+    // Only ever changed through SeatCounter.claimSeats/releaseSeats (which also evict the cached
+    // entity), never by flushing a loaded entity
+    @Column(updatable = false)
     private int availableSeats;
+
+    // Bumped by every entity update and by every seat count update, so it orders all changes to the bus
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void updateRouteKeys() {
+        fromKey = locationKey(fromLocation);
+        toKey = locationKey(toLocation);
+    }
+
+    // Case and surrounding whitespace never tell two stops apart
+    public static String locationKey(String location) {
+        return location == null ? "" : location.trim().toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.busbooking.bus_booking_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// A live seat hold, written with the seat count it took off its bus, so a crashed node's holds
+// can still be given back; the seats themselves are only held in memory
+@Entity
+@Table(name = "seat_hold", indexes = @Index(name = "idx_seat_hold_expires_at", columnList = "expiresAt"))
+@Data
+public class Hold {
+    @Id
+    private String id;
+    private Long busId;
+    private int seats;
+    private Instant expiresAt;
+}
\ No newline at end of file
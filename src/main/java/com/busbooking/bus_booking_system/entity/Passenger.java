@@ -1,19 +1,34 @@
 package com.busbooking.bus_booking_system.entity;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_passenger_bus_seat", columnNames = {"bus_id", "seat_number"}))
 @Data
 public class Passenger {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passenger_seq", allocationSize = 50)
     private Long id;
     private String name;
     private int age;
     private String seatNumber;
 
+    @JsonBackReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "booking_id")
     private Booking booking;
+
+    // The seat claim: (bus_id, seat_number) is unique, so a seat can never be sold twice
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "bus_id")
+    private Bus bus;
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.busbooking.bus_booking_system.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;  // <-- IMPORTANT
 import lombok.Data;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.List;
 import java.util.Collection;
@@ -17,15 +24,22 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 @Entity
 @Table(name = "\"user\"")   // <-- FIX: escape reserved table name
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-by-email")
 @Data
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     private String name;
+    // Natural id so that email lookups resolve through the second-level cache; mutable for profile updates
+    @NaturalId(mutable = true)
     private String email;
+    @ToString.Exclude
     private String password;
     private String role;
 
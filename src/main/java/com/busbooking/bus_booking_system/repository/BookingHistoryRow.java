@@ -0,0 +1,9 @@
+package com.busbooking.bus_booking_system.repository;
+
+import java.time.LocalDateTime;
+
+// One booking with its bus columns, read by a single projection query
+public record BookingHistoryRow(Long id, LocalDateTime bookingTime, String status,
+                                Long busId, String fromLocation, String toLocation,
+                                LocalDateTime departureTime, LocalDateTime arrivalTime, double price) {
+}
\ No newline at end of file
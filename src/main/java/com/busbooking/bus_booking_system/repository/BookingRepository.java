@@ -1,11 +1,39 @@
 package com.busbooking.bus_booking_system.repository;
 
 import com.busbooking.bus_booking_system.entity.Booking;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     List<Booking> findByBusId(Long busId); // Added method to find bookings by busId
+
+    @Query("select b.bus.id from Booking b where b.id = :id and b.user.email = :email")
+    Optional<Long> findBusIdOfUserBooking(@Param("id") Long id, @Param("email") String email);
+
+    // Flips a booking to cancelled exactly once; returns 0 when it was already cancelled
+    @Modifying
+    @Query("update Booking b set b.status = 'CANCELLED' where b.id = :id and (b.status is null or b.status <> 'CANCELLED')")
+    int cancel(@Param("id") Long id);
+
+    // Newest-first history pages keyed on (bookingTime, id); one query however many bookings a user has
+    @Query("select new com.busbooking.bus_booking_system.repository.BookingHistoryRow(" +
+            "b.id, b.bookingTime, b.status, bus.id, bus.fromLocation, bus.toLocation, bus.departureTime, bus.arrivalTime, bus.price) " +
+            "from Booking b join b.bus bus where b.user.email = :email order by b.bookingTime desc, b.id desc")
+    List<BookingHistoryRow> findHistory(@Param("email") String email, Limit limit);
+
+    @Query("select new com.busbooking.bus_booking_system.repository.BookingHistoryRow(" +
+            "b.id, b.bookingTime, b.status, bus.id, bus.fromLocation, bus.toLocation, bus.departureTime, bus.arrivalTime, bus.price) " +
+            "from Booking b join b.bus bus where b.user.email = :email " +
+            "and (b.bookingTime < :bookingTime or (b.bookingTime = :bookingTime and b.id < :id)) " +
+            "order by b.bookingTime desc, b.id desc")
+    List<BookingHistoryRow> findHistoryBefore(@Param("email") String email, @Param("bookingTime") LocalDateTime bookingTime,
+                                              @Param("id") Long id, Limit limit);
 }
\ No newline at end of file
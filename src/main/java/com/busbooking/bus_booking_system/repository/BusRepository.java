@@ -1,10 +1,80 @@
 package com.busbooking.bus_booking_system.repository;
 
 import com.busbooking.bus_booking_system.entity.Bus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BusRepository extends JpaRepository<Bus, Long> {
+    String SEAT_COUNT_SPACE = "bus_seat_counts";
+
     List<Bus> findByFromLocationAndToLocation(String fromLocation, String toLocation);
+
+    // Filtered route search by Bus.locationKey of both ends; both use idx_bus_route_key_departure,
+    // the second as a departure range scan
+    @Query("select b from Bus b where b.fromKey = :from and b.toKey = :to " +
+            "and b.availableSeats >= :minSeats and b.price <= :maxPrice")
+    List<Bus> findRoute(@Param("from") String from, @Param("to") String to, @Param("minSeats") int minSeats,
+                        @Param("maxPrice") double maxPrice, Sort sort);
+
+    @Query("select b from Bus b where b.fromKey = :from and b.toKey = :to " +
+            "and b.departureTime between :departFrom and :departTo " +
+            "and b.availableSeats >= :minSeats and b.price <= :maxPrice")
+    List<Bus> findRouteDepartingBetween(@Param("from") String from, @Param("to") String to,
+                                        @Param("departFrom") LocalDateTime departFrom, @Param("departTo") LocalDateTime departTo,
+                                        @Param("minSeats") int minSeats, @Param("maxPrice") double maxPrice, Sort sort);
+
+    // Fills in the route keys of rows saved before Bus had them, by the same rule as Bus.locationKey
+    @Transactional
+    @Modifying
+    @Query("update Bus b set b.fromKey = lower(trim(coalesce(b.fromLocation, ''))), " +
+            "b.toKey = lower(trim(coalesce(b.toLocation, ''))) where b.fromKey is null or b.toKey is null")
+    int backfillRouteKeys();
+
+    // Atomically takes `count` seats; returns 0 when the bus is missing or has too few left.
+    // Bumps the entity version, so in-memory copies can tell which of two seat counts is newer.
+    // Native with its own query space so Hibernate does not clear the whole Bus cache region;
+    // callers go through SeatCounter, which evicts just this bus.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update bus set available_seats = available_seats - :count, version = version + 1 " +
+            "where id = :busId and available_seats >= :count",
+            nativeQuery = true)
+    int claimSeats(@Param("busId") Long busId, @Param("count") int count);
+
+    // Atomically gives `count` seats back; same caching rules as claimSeats
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update bus set available_seats = available_seats + :count, version = version + 1 where id = :busId", nativeQuery = true)
+    int releaseSeats(@Param("busId") Long busId, @Param("count") int count);
+
+    // Keyset pages ordered by (departureTime, id); buses without a departure time sort last
+    List<Bus> findAllByOrderByDepartureTimeAscIdAsc(Limit limit);
+
+    // Dated buses only, as a row value comparison so it is a single range scan on idx_bus_departure_id
+    @Query("select b from Bus b where (b.departureTime, b.id) > (:departureTime, :id) order by b.departureTime, b.id")
+    List<Bus> findPageAfter(@Param("departureTime") LocalDateTime departureTime, @Param("id") Long id, Limit limit);
+
+    List<Bus> findByDepartureTimeIsNullOrderByIdAsc(Limit limit);
+
+    @Query("select b from Bus b where b.departureTime is null and b.id > :id order by b.id")
+    List<Bus> findUndatedPageAfter(@Param("id") Long id, Limit limit);
+
+    // Server-side cursor over the whole timetable; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Bus b order by b.departureTime, b.id")
+    Stream<Bus> streamAllOrdered();
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.busbooking.bus_booking_system.repository;
+
+import com.busbooking.bus_booking_system.entity.Hold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface HoldRepository extends JpaRepository<Hold, String> {
+
+    // Returns 1 to the one caller that gets to settle the hold's seat count: give it back or book it
+    @Transactional
+    @Modifying
+    @Query("delete from Hold h where h.id = :id")
+    int deleteHold(@Param("id") String id);
+
+    List<Hold> findByExpiresAtBefore(Instant time);
+}
\ No newline at end of file
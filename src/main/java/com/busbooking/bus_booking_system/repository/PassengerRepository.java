@@ -2,9 +2,49 @@ package com.busbooking.bus_booking_system.repository;
 
 import com.busbooking.bus_booking_system.entity.Passenger;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PassengerRepository extends JpaRepository<Passenger, Long> {
+    // An unclaimed live passenger whose seat is already claimed on its bus, or wanted by an earlier booking
+    String DUPLICATE_SEAT = "exists (select q from Passenger q where q <> p and q.seatNumber = p.seatNumber " +
+            "and (q.bus = p.booking.bus or (q.bus is null and q.booking.bus = p.booking.bus " +
+            "and (q.booking.status is null or q.booking.status <> 'CANCELLED') " +
+            "and (q.booking.id < p.booking.id or (q.booking.id = p.booking.id and q.id < p.id)))))";
+
     List<Passenger> findByBooking_Id(Long bookingId);
+
+    @Query("select p.seatNumber from Passenger p where p.bus.id = :busId")
+    List<String> findSeatNumbersByBusId(@Param("busId") Long busId);
+
+    @Query("select new com.busbooking.bus_booking_system.repository.PassengerRow(p.booking.id, p.id, p.name, p.age, p.seatNumber) " +
+            "from Passenger p where p.booking.id in :bookingIds order by p.id")
+    List<PassengerRow> findRowsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("select p.seatNumber from Passenger p where p.booking.id = :bookingId and p.bus is not null")
+    List<String> findClaimedSeatNumbersByBookingId(@Param("bookingId") Long bookingId);
+
+    // Gives up the seat claims of a booking; (bus_id, seat_number) no longer blocks those seats
+    @Modifying
+    @Query("update Passenger p set p.bus = null where p.booking.id = :bookingId")
+    int releaseSeatClaims(@Param("bookingId") Long bookingId);
+
+    @Query("select new com.busbooking.bus_booking_system.repository.PassengerRow(p.booking.id, p.id, p.name, p.age, p.seatNumber) " +
+            "from Passenger p where p.bus is null and (p.booking.status is null or p.booking.status <> 'CANCELLED') " +
+            "and " + DUPLICATE_SEAT + " order by p.booking.id, p.id")
+    List<PassengerRow> findDuplicateSeatsToBackfill();
+
+    // Seat claims for passengers stored before the bus_id column existed; cancelled bookings hold no
+    // seats, and of several passengers on one seat only the earliest booking gets the claim
+    @Transactional
+    @Modifying
+    @Query("update Passenger p set p.bus = (select b.bus from Booking b where b = p.booking) " +
+            "where p.bus is null and (p.booking.status is null or p.booking.status <> 'CANCELLED') " +
+            "and not " + DUPLICATE_SEAT)
+    int backfillSeatClaims();
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.busbooking.bus_booking_system.repository;
+
+// Passenger columns keyed by booking, so a whole page of bookings is filled with one query
+public record PassengerRow(Long bookingId, Long id, String name, int age, String seatNumber) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.busbooking.bus_booking_system.repository;
+
+import com.busbooking.bus_booking_system.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Resolved through the natural-id cache, so repeated lookups of the same email skip the database
+    Optional<User> findByEmail(String email);
+}
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.busbooking.bus_booking_system.security;
 
+import com.busbooking.bus_booking_system.service.BookingMetrics;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,12 +19,16 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final Timer validTokens;
+    private final Timer invalidTokens;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, BookingMetrics bookingMetrics) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.validTokens = bookingMetrics.timer(BookingMetrics.JWT_VERIFY, "valid");
+        this.invalidTokens = bookingMetrics.timer(BookingMetrics.JWT_VERIFY, "invalid");
     }
 
     @Override
@@ -31,7 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Skip filtering for /api/auth/** endpoints
         String path = request.getRequestURI();
         if (path.startsWith("/api/auth/")) {
-            System.out.println("Skipping JWT filter for path: " + path); // Debug log
+            logger.debug("Skipping JWT filter for path: {}", path);
             filterChain.doFilter(request, response);
             return;
         }
@@ -39,27 +45,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
+            Timer.Sample sample = Timer.start();
+            Timer outcome = invalidTokens;
             try {
-                String name = jwtUtil.getUsernameFromToken(jwt);
-                if (name != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(name);
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    } else {
-                        System.out.println("Invalid JWT token for user: " + name); // Debug log
-                    }
+                // Signature checked once per token, then served from cache; no user lookup in the database
+                JwtPrincipal principal = jwtUtil.verify(jwt);
+                outcome = validTokens;
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.authorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
                 } else {
-                    System.out.println("No username extracted from token or authentication already set"); // Debug log
+                    logger.debug("Authentication already set");
                 }
             } catch (JwtException e) {
-                System.out.println("JWT token parsing failed: " + e.getMessage()); // Debug log
+                logger.debug("JWT token parsing failed: {}", e.getMessage());
                 SecurityContextHolder.clearContext();
+            } finally {
+                sample.stop(outcome);
             }
         } else {
-            System.out.println("No Authorization header or invalid format"); // Debug log
+            logger.debug("No Authorization header or invalid format");
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,24 @@
+package com.busbooking.bus_booking_system.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Authenticated user as described by a verified token's claims. {@link #getName()} is the email,
+ * so {@code Authentication.getName()} keeps returning what controllers already expect.
+ */
+public record JwtPrincipal(Long userId, String email, String role, Instant expiresAt) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return role == null ? List.of() : List.of(new SimpleGrantedAuthority(role));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.busbooking.bus_booking_system.security;
+
+/**
+ * Thrown when the password hashing pool is saturated; surfaced to clients as 503.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.busbooking.bus_booking_system.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user token buckets, one per endpoint group: bookings (creating and cancelling) and searches
+ * (reading buses and journeys). A user who runs out of tokens gets 429 with {@code Retry-After}
+ * before the request reaches a controller or the database. Runs after JWT authentication;
+ * anonymous requests are left to the authorization rules.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String BOOKING = "booking";
+    static final String SEARCH = "search";
+
+    private final boolean enabled;
+    private final Limit booking;
+    private final Limit search;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(@Value("${admission.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${admission.rate-limit.booking.capacity:10}") double bookingCapacity,
+                           @Value("${admission.rate-limit.booking.refill-per-second:2}") double bookingRefill,
+                           @Value("${admission.rate-limit.search.capacity:60}") double searchCapacity,
+                           @Value("${admission.rate-limit.search.refill-per-second:20}") double searchRefill,
+                           @Value("${admission.rate-limit.max-buckets:100000}") long maxBuckets,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        this.booking = new Limit(BOOKING, bookingCapacity, bookingRefill);
+        this.search = new Limit(SEARCH, searchCapacity, searchRefill);
+        // A bucket left idle this long has refilled completely, so dropping it changes nothing
+        long idleSeconds = (long) Math.ceil(Math.max(bookingCapacity / bookingRefill, searchCapacity / searchRefill));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Math.max(1, idleSeconds), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limitFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Limit limit = limitFor(request);
+        String user = authentication.getName();
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(limit.group + '\n' + user, key -> new TokenBucket(limit.capacity, limit.refillPerSecond, now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        logger.debug("Rate limit of {} requests exceeded by {}", limit.group, user);
+        limit.rejected.increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many " + limit.group + " requests, please slow down");
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if (path.startsWith("/api/bookings") && ("POST".equals(method) || "DELETE".equals(method))) {
+            return booking;
+        }
+        if (path.startsWith("/api/buses") && "GET".equals(method)) {
+            return search;
+        }
+        return null;
+    }
+
+    private final class Limit {
+        private final String group;
+        private final double capacity;
+        private final double refillPerSecond;
+        private final Counter rejected;
+
+        Limit(String group, double capacity, double refillPerSecond) {
+            this.group = group;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.rejected = Counter.builder("admission.rejected")
+                    .description("Requests turned away before reaching a controller")
+                    .tag("reason", "rate_limit")
+                    .tag("endpoint", group)
+                    .register(meterRegistry);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.busbooking.bus_booking_system.security;
+
+/**
+ * Holds up to {@code capacity} tokens and regains {@code refillPerSecond} of them every second.
+ * Refill is computed lazily from the time of the last call, so idle buckets cost nothing.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes one token. Returns 0 when it was available, otherwise the nanos until one will be.
+     */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
\ No newline at end of file
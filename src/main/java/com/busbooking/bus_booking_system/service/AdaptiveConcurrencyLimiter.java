@@ -0,0 +1,188 @@
+package com.busbooking.bus_booking_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps how many requests run at once, and adapts the cap to how fast they complete: each request
+ * finishing within {@code targetLatencyMs} raises it by {@code 1/limit}, each slower one cuts it
+ * by a tenth (AIMD). Requests over the cap wait in a short, bounded queue; when the queue is full or
+ * the wait exceeds {@code maxQueueWaitMs} the request is shed straight away instead of piling up on
+ * the connection pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double BACKOFF = 0.9;
+
+    private final String name;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long targetLatencyNanos;
+    private final int maxQueue;
+    private final long maxQueueWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitFreed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long shed;
+    private Counter shedCounter;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyMs, int maxQueue, long maxQueueWaitMs) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        logger.info("Concurrency limit for {} starts at {} (between {} and {}), {} ms target latency",
+                name, initialLimit, minLimit, maxLimit, targetLatencyMs);
+    }
+
+    /**
+     * Publishes the current limit, in-flight and queued requests and shed count as
+     * {@code admission.limit}, {@code admission.inflight}, {@code admission.queued} and
+     * {@code admission.rejected}, tagged with the limiter's name.
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.limit", this, AdaptiveConcurrencyLimiter::limit).tag("endpoint", name).register(registry);
+        Gauge.builder("admission.inflight", this, AdaptiveConcurrencyLimiter::inFlight).tag("endpoint", name).register(registry);
+        Gauge.builder("admission.queued", this, AdaptiveConcurrencyLimiter::queued).tag("endpoint", name).register(registry);
+        shedCounter = Counter.builder("admission.rejected")
+                .description("Requests turned away before reaching a controller")
+                .tag("reason", "overload")
+                .tag("endpoint", name)
+                .register(registry);
+    }
+
+    /**
+     * Admits the caller, waiting at most {@code maxQueueWaitMs} for a free slot. Returns
+     * {@code null} when the request should be shed; otherwise the permit must be closed once the
+     * work is done.
+     */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            // Newcomers queue behind whoever is already waiting
+            if (queued == 0 && inFlight < (int) limit) {
+                return admit();
+            }
+            if (queued >= maxQueue) {
+                return reject();
+            }
+            queued++;
+            try {
+                long remaining = maxQueueWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return reject();
+                    }
+                    remaining = permitFreed.awaitNanos(remaining);
+                }
+                return admit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return reject();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long shedCount() {
+        lock.lock();
+        try {
+            return shed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admit() {
+        inFlight++;
+        return new Permit(System.nanoTime());
+    }
+
+    private Permit reject() {
+        shed++;
+        if (shedCounter != null) {
+            shedCounter.increment();
+        }
+        return null;
+    }
+
+    private void release(long latencyNanos) {
+        lock.lock();
+        try {
+            // Only a limit that was actually reached says anything about whether it can grow
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            if (latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            permitFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final long admittedAt;
+        private boolean closed;
+
+        private Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(System.nanoTime() - admittedAt);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.busbooking.bus_booking_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Meters for the booking hot path. Latencies are published as percentile histograms tagged with
+ * the outcome; rejections are counted by reason. Scraped from {@code /actuator/prometheus}.
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String CREATE_BOOKING = "booking.create";
+    public static final String CREATE_BATCH = "booking.batch.create";
+    public static final String CANCEL_BOOKING = "booking.cancel";
+    public static final String FIND_BUSES = "bus.search";
+    public static final String PLAN_JOURNEYS = "journey.plan";
+    public static final String BOOKING_HISTORY = "booking.history";
+    public static final String JWT_VERIFY = "jwt.verify";
+
+    private final MeterRegistry registry;
+    private final Counter seatConflicts;
+    private final Counter insufficientSeats;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.seatConflicts = rejections("seat_conflict");
+        this.insufficientSeats = rejections("insufficient_seats");
+    }
+
+    public <T> T time(String name, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(name, outcome));
+        }
+    }
+
+    public Timer timer(String name, String outcome) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void seatConflict() {
+        seatConflicts.increment();
+    }
+
+    public void insufficientSeats() {
+        insufficientSeats.increment();
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("booking.rejected")
+                .description("Bookings rejected before any seat was sold")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
\ No newline at end of file
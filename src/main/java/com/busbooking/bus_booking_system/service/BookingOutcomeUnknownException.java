@@ -0,0 +1,23 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Booking;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thrown when the wait for a booking ended before its transaction did, so it may still commit.
+ * {@link #getOutcome()} completes with the real result once the booking settles.
+ */
+public class BookingOutcomeUnknownException extends BookingUnavailableException {
+
+    private final transient CompletableFuture<Booking> outcome;
+
+    public BookingOutcomeUnknownException(String message, CompletableFuture<Booking> outcome) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<Booking> getOutcome() {
+        return outcome;
+    }
+}
\ No newline at end of file
@@ -1,23 +1,42 @@
 package com.busbooking.bus_booking_system.service;
 
+import com.busbooking.bus_booking_system.controller.BookingHistoryResponse;
 import com.busbooking.bus_booking_system.controller.BookingRequest;
-import com.busbooking.bus_booking_system.controller.PassengerRequest;
 import com.busbooking.bus_booking_system.entity.Booking;
 import com.busbooking.bus_booking_system.entity.Bus;
-import com.busbooking.bus_booking_system.entity.Passenger;
 import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BookingHistoryRow;
 import com.busbooking.bus_booking_system.repository.BookingRepository;
 import com.busbooking.bus_booking_system.repository.BusRepository;
 import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRow;
 import com.busbooking.bus_booking_system.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,92 +44,331 @@ public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    public static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final BusRepository busRepository;
     private final PassengerRepository passengerRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final BookingWriter bookingWriter;
+    private final BookingMetrics bookingMetrics;
+    private final ShardedBookingEngine shardedBookingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long engineTimeoutMs;
+    private final int maxBatchGroups;
 
     public BookingService(BookingRepository bookingRepository, UserRepository userRepository,
-                          BusRepository busRepository, PassengerRepository passengerRepository) {
+                          BusRepository busRepository, PassengerRepository passengerRepository,
+                          SeatInventory seatInventory, SeatCounter seatCounter, BookingWriter bookingWriter,
+                          BookingMetrics bookingMetrics,
+                          ObjectProvider<ShardedBookingEngine> shardedBookingEngine,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${booking.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${booking.retry.backoff-ms:20}") long retryBackoffMs,
+                          @Value("${booking.engine.timeout-ms:5000}") long engineTimeoutMs,
+                          @Value("${booking.batch.max-groups:50}") int maxBatchGroups) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.busRepository = busRepository;
         this.passengerRepository = passengerRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        this.bookingWriter = bookingWriter;
+        this.bookingMetrics = bookingMetrics;
+        this.shardedBookingEngine = shardedBookingEngine.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.engineTimeoutMs = engineTimeoutMs;
+        this.maxBatchGroups = maxBatchGroups;
     }
 
-    @Transactional
+    /**
+     * Books the requested seats without any JVM-wide lock. The seat count is claimed with a
+     * conditional decrement and seat numbers are guarded by the (bus, seat_number) unique
+     * constraint, so overselling is impossible even across nodes. Business rejections fail
+     * fast; only transient lock failures are retried, a bounded number of times.
+     * <p>
+     * With {@code booking.engine.mode=sharded} the request is handed to the
+     * {@link ShardedBookingEngine} instead and this call waits for its result.
+     */
     public Booking createBooking(BookingRequest bookingRequest, String email) {
+        return bookingMetrics.time(BookingMetrics.CREATE_BOOKING, () -> book(bookingRequest, email));
+    }
+
+    private Booking book(BookingRequest bookingRequest, String email) {
         logger.info("Creating booking for user: {}, busId: {}", email, bookingRequest.getBusId());
 
         if (bookingRequest.getBusId() == null) {
             logger.error("Bus ID is null in booking request");
             throw new RuntimeException("No bus ID provided in booking request");
         }
+        List<String> requestedSeats = bookingWriter.requestedSeats(bookingRequest);
+        if (shardedBookingEngine != null) {
+            return awaitShard(bookingRequest, requestedSeats, email);
+        }
+
+        return executeWithRetry(List.of(bookingRequest.getBusId()),
+                "One or more of the seats " + String.join(", ", requestedSeats) + " are already booked",
+                status -> bookSeats(bookingRequest, requestedSeats, email));
+    }
+
+    /**
+     * Runs one booking transaction. Business rejections fail fast; only transient lock failures
+     * are retried, a bounded number of times.
+     */
+    private <T> T executeWithRetry(Collection<Long> busIds, String conflictMessage, TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (DataIntegrityViolationException e) {
+                // Another node (or a stale seat map) let a duplicate seat through to the database
+                logger.warn("Seat constraint violated for bus {}: {}", busIds, e.getMostSpecificCause().getMessage());
+                busIds.forEach(seatInventory::invalidate);
+                bookingMetrics.seatConflict();
+                throw new RuntimeException(conflictMessage);
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    logger.error("Booking for bus {} failed after {} attempts: {}", busIds, attempt, e.getMessage());
+                    throw new BookingUnavailableException("Booking could not be completed due to high demand, please try again");
+                }
+                logger.warn("Transient failure booking bus {} (attempt {}/{}): {}", busIds, attempt, maxAttempts, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
 
+    private Booking bookSeats(BookingRequest bookingRequest, List<String> requestedSeats, String email) {
+        Long busId = bookingRequest.getBusId();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
                     logger.error("User not found with email: {}", email);
                     return new RuntimeException("User not found");
                 });
 
-        Bus bus = busRepository.findById(bookingRequest.getBusId())
-                .orElseThrow(() -> {
-                    logger.error("Bus not found: {}", bookingRequest.getBusId());
-                    return new RuntimeException("Bus not found");
-                });
-
-        logger.info("Available seats: {}, Requested passengers: {}", bus.getAvailableSeats(), bookingRequest.getPassengers().size());
-        if (bus.getAvailableSeats() < bookingRequest.getPassengers().size()) {
-            logger.warn("Not enough seats available for bus: {}", bus.getId());
+        // Conditional decrement: succeeds only while enough seats remain. A hold took its count already
+        if (bookingRequest.getHoldId() == null && !seatCounter.claimSeats(busId, requestedSeats.size())) {
+            if (!busRepository.existsById(busId)) {
+                logger.error("Bus not found: {}", busId);
+                throw new RuntimeException("Bus not found");
+            }
+            logger.warn("Not enough seats available for bus: {}", busId);
+            bookingMetrics.insufficientSeats();
             throw new RuntimeException("Not enough seats available");
         }
+        Bus bus = busRepository.findById(busId)
+                .orElseThrow(() -> new RuntimeException("Bus not found"));
+
+        // Claim the requested seats against the in-memory seat map of the bus
+        bookingWriter.reserveSeats(bookingRequest, requestedSeats, email);
+        bookingWriter.releaseSeatsOnRollback(bookingRequest, requestedSeats);
 
-        // Check for existing seat numbers
-        Set<String> requestedSeats = bookingRequest.getPassengers().stream()
-                .map(PassengerRequest::getSeatNumber)
-                .collect(Collectors.toSet());
-        List<Booking> existingBookings = bookingRepository.findByBusId(bookingRequest.getBusId());
-        Set<String> occupiedSeats = existingBookings.stream()
-                .flatMap(b -> b.getPassengers().stream())
-                .map(Passenger::getSeatNumber)
-                .collect(Collectors.toSet());
-        requestedSeats.retainAll(occupiedSeats);
-        if (!requestedSeats.isEmpty()) {
-            logger.warn("Seats already booked for bus {}: {}", bus.getId(), requestedSeats);
-            throw new RuntimeException("Seats " + String.join(", ", requestedSeats) + " are already booked");
-        }
-
-        Booking booking = new Booking();
-        booking.setUser(user);
-        booking.setBus(bus);
-        booking.setBookingTime(LocalDateTime.now());
-        booking.setStatus("CONFIRMED");
-        booking = bookingRepository.save(booking);
-        logger.info("Booking saved with ID: {}", booking.getId());
-
-        for (PassengerRequest pr : bookingRequest.getPassengers()) {
-            logger.info("Saving passenger: name={}, age={}, seatNumber={}", pr.getName(), pr.getAge(), pr.getSeatNumber());
-            Passenger passenger = new Passenger();
-            passenger.setName(pr.getName());
-            passenger.setAge(pr.getAge());
-            passenger.setSeatNumber(pr.getSeatNumber());
-            passenger.setBooking(booking);
-            passengerRepository.save(passenger);
-        }
-
-        bus.setAvailableSeats(bus.getAvailableSeats() - bookingRequest.getPassengers().size());
-        busRepository.save(bus);
+        Booking booking = bookingWriter.persist(user, bus, bookingRequest);
+        bookingWriter.flush();
+        bookingWriter.busChanged(bus);
         logger.info("Updated bus available seats: {}", bus.getAvailableSeats());
 
         return booking;
     }
 
-    public List<Booking> getBookingHistory(String email) {
+    /**
+     * Books several passenger groups, possibly on different buses, all or nothing. Every group is
+     * validated before the transaction starts; inside it the user is read once, each bus's seat
+     * count is claimed once for all of its groups in ascending bus id order, so concurrent batches
+     * cannot deadlock on bus rows, and the buses are read back with a single query. All rows are
+     * flushed together as batched inserts. Batches always take this transactional path, also
+     * with the sharded engine, since no single shard owns all of their buses.
+     */
+    public List<Booking> createBookings(List<BookingRequest> bookingRequests, String email) {
+        return bookingMetrics.time(BookingMetrics.CREATE_BATCH, () -> bookBatch(bookingRequests, email));
+    }
+
+    private List<Booking> bookBatch(List<BookingRequest> bookingRequests, String email) {
+        if (bookingRequests == null || bookingRequests.isEmpty()) {
+            throw new RuntimeException("At least one booking is required");
+        }
+        if (bookingRequests.size() > maxBatchGroups) {
+            throw new RuntimeException("At most " + maxBatchGroups + " bookings can be made at once");
+        }
+        logger.info("Creating {} bookings for user: {}", bookingRequests.size(), email);
+
+        List<List<String>> requestedSeats = new ArrayList<>(bookingRequests.size());
+        Map<Long, Set<String>> seatsByBus = new TreeMap<>();
+        for (BookingRequest bookingRequest : bookingRequests) {
+            if (bookingRequest.getBusId() == null) {
+                throw new RuntimeException("No bus ID provided in booking request");
+            }
+            List<String> seats = bookingWriter.requestedSeats(bookingRequest);
+            Set<String> busSeats = seatsByBus.computeIfAbsent(bookingRequest.getBusId(), id -> new HashSet<>());
+            for (String seat : seats) {
+                if (!busSeats.add(seat)) {
+                    throw new RuntimeException("Seat " + seat + " on bus " + bookingRequest.getBusId() + " is requested more than once");
+                }
+            }
+            requestedSeats.add(seats);
+        }
+
+        return executeWithRetry(seatsByBus.keySet(), "One or more of the requested seats are already booked",
+                status -> bookGroups(bookingRequests, requestedSeats, seatsByBus, email));
+    }
+
+    private List<Booking> bookGroups(List<BookingRequest> bookingRequests, List<List<String>> requestedSeats,
+                                     Map<Long, Set<String>> seatsByBus, String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
                     logger.error("User not found with email: {}", email);
                     return new RuntimeException("User not found");
                 });
-        return bookingRepository.findByUserId(user.getId());
+
+        // Ascending bus id: every batch takes the bus row locks in the same order. Held seats are
+        // already off the count
+        Map<Long, Integer> seatsToClaim = new TreeMap<>();
+        for (int i = 0; i < bookingRequests.size(); i++) {
+            if (bookingRequests.get(i).getHoldId() == null) {
+                seatsToClaim.merge(bookingRequests.get(i).getBusId(), requestedSeats.get(i).size(), Integer::sum);
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : seatsToClaim.entrySet()) {
+            Long busId = entry.getKey();
+            if (!seatCounter.claimSeats(busId, entry.getValue())) {
+                if (!busRepository.existsById(busId)) {
+                    logger.error("Bus not found: {}", busId);
+                    throw new RuntimeException("Bus " + busId + " not found");
+                }
+                logger.warn("Not enough seats available for bus: {}", busId);
+                bookingMetrics.insufficientSeats();
+                throw new RuntimeException("Not enough seats available on bus " + busId);
+            }
+        }
+        Map<Long, Bus> buses = busRepository.findAllById(seatsByBus.keySet()).stream()
+                .collect(Collectors.toMap(Bus::getId, Function.identity()));
+
+        // Claim every seat before saving anything: loading a seat map queries Passenger, which
+        // would auto-flush pending inserts and break them out of their batches
+        for (int i = 0; i < bookingRequests.size(); i++) {
+            BookingRequest bookingRequest = bookingRequests.get(i);
+            bookingWriter.reserveSeats(bookingRequest, requestedSeats.get(i), email);
+            bookingWriter.releaseSeatsOnRollback(bookingRequest, requestedSeats.get(i));
+        }
+        List<Booking> bookings = new ArrayList<>(bookingRequests.size());
+        for (BookingRequest bookingRequest : bookingRequests) {
+            bookings.add(bookingWriter.persist(user, buses.get(bookingRequest.getBusId()), bookingRequest));
+        }
+        bookingWriter.flush();
+        buses.values().forEach(bookingWriter::busChanged);
+        logger.info("Booked {} groups on buses {} for user {}", bookings.size(), buses.keySet(), email);
+        return bookings;
+    }
+
+    /**
+     * Cancels one of the user's bookings. The status flip is a conditional update, so a booking
+     * is cancelled and its seats returned at most once. Only the booking's own passengers are
+     * touched: their seat claims are cleared in one update, the bus count goes up by the same
+     * number, and the seats return to the {@link SeatInventory} after commit. Like batches this
+     * runs outside the sharded engine; every step is atomic in the database.
+     */
+    public void cancelBooking(Long bookingId, String email) {
+        bookingMetrics.time(BookingMetrics.CANCEL_BOOKING, () -> {
+            transactionTemplate.executeWithoutResult(status -> cancel(bookingId, email));
+            return null;
+        });
+    }
+
+    private void cancel(Long bookingId, String email) {
+        Long busId = bookingRepository.findBusIdOfUserBooking(bookingId, email)
+                .orElseThrow(() -> {
+                    logger.warn("Booking {} not found for user {}", bookingId, email);
+                    return new RuntimeException("Booking not found");
+                });
+        if (bookingRepository.cancel(bookingId) == 0) {
+            throw new RuntimeException("Booking is already cancelled");
+        }
+        List<String> seats = passengerRepository.findClaimedSeatNumbersByBookingId(bookingId);
+        if (!seats.isEmpty()) {
+            passengerRepository.releaseSeatClaims(bookingId);
+            seatCounter.releaseSeats(busId, seats.size());
+            bookingWriter.releaseSeatsOnCommit(busId, seats);
+        }
+        busRepository.findById(busId).ifPresent(bookingWriter::busChanged);
+        logger.info("Cancelled booking {} for user {}, released seats {} on bus {}", bookingId, email, seats, busId);
+    }
+
+    // The shard keeps going after the wait ends, so a timeout or interrupt leaves the outcome open
+    private Booking awaitShard(BookingRequest bookingRequest, List<String> requestedSeats, String email) {
+        CompletableFuture<Booking> result = shardedBookingEngine.submit(bookingRequest, requestedSeats, email);
+        try {
+            return result.get(engineTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Booking failed", e.getCause());
+        } catch (TimeoutException e) {
+            logger.error("Timed out waiting for booking shard, bus {}", bookingRequest.getBusId());
+            throw new BookingOutcomeUnknownException("Booking is taking longer than expected, please check your booking history", result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingOutcomeUnknownException("Booking interrupted", result);
+        }
+    }
+
+    private void backoff(int attempt) {
+        long delay = retryBackoffMs * attempt + ThreadLocalRandom.current().nextLong(retryBackoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingUnavailableException("Booking interrupted");
+        }
+    }
+
+    /**
+     * One page of the user's bookings, newest first. Bookings and their bus come from one
+     * projection query and the passengers of the whole page from a second, so the query count
+     * does not grow with the number of bookings. Page {@code limit} is capped at {@link #MAX_HISTORY_PAGE_SIZE}.
+     */
+    public HistoryPage getBookingHistory(String email, String cursor, int limit) {
+        return bookingMetrics.time(BookingMetrics.BOOKING_HISTORY, () -> loadHistory(email, cursor, limit));
+    }
+
+    private HistoryPage loadHistory(String email, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<BookingHistoryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findHistory(email, fetch);
+        } else {
+            KeysetCursor before = KeysetCursor.decode(cursor);
+            rows = bookingRepository.findHistoryBefore(email, before.time(), before.id(), fetch);
+        }
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            BookingHistoryRow last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.bookingTime(), last.id()).encode();
+        }
+        if (rows.isEmpty()) {
+            return new HistoryPage(List.of(), null);
+        }
+
+        Map<Long, List<BookingHistoryResponse.PassengerSummary>> passengers = new HashMap<>();
+        for (PassengerRow p : passengerRepository.findRowsByBookingIds(rows.stream().map(BookingHistoryRow::id).toList())) {
+            passengers.computeIfAbsent(p.bookingId(), id -> new ArrayList<>())
+                    .add(new BookingHistoryResponse.PassengerSummary(p.id(), p.name(), p.age(), p.seatNumber()));
+        }
+        List<BookingHistoryResponse> bookings = rows.stream()
+                .map(row -> new BookingHistoryResponse(row.id(), row.bookingTime(), row.status(),
+                        new BookingHistoryResponse.BusSummary(row.busId(), row.fromLocation(), row.toLocation(),
+                                row.departureTime(), row.arrivalTime(), row.price()),
+                        passengers.getOrDefault(row.id(), List.of())))
+                .toList();
+        return new HistoryPage(bookings, nextCursor);
+    }
+
+    public record HistoryPage(List<BookingHistoryResponse> bookings, String nextCursor) {
     }
 }
\ No newline at end of file
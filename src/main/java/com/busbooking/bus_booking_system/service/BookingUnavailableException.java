@@ -0,0 +1,13 @@
+package com.busbooking.bus_booking_system.service;
+
+/**
+ * Thrown when a booking failed for a transient reason without committing, so the client should
+ * retry; surfaced to clients as 503 and never remembered under an idempotency key. A booking whose
+ * outcome is not known yet throws {@link BookingOutcomeUnknownException} instead.
+ */
+public class BookingUnavailableException extends RuntimeException {
+
+    public BookingUnavailableException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.Passenger;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Request validation and row writing shared by the direct and the sharded booking paths.
+ * Callers are responsible for the transaction and for claiming the seat count first, through
+ * {@link SeatCounter}, except for seats taken from a hold, whose count the hold already took.
+ */
+@Component
+public class BookingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingWriter.class);
+
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final SeatHoldService seatHoldService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics bookingMetrics;
+
+    public BookingWriter(BookingRepository bookingRepository, SeatInventory seatInventory,
+                         SeatHoldService seatHoldService, ApplicationEventPublisher eventPublisher,
+                         BookingMetrics bookingMetrics) {
+        this.bookingRepository = bookingRepository;
+        this.seatInventory = seatInventory;
+        this.seatHoldService = seatHoldService;
+        this.eventPublisher = eventPublisher;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    /**
+     * Validates the passenger list and returns the requested seat numbers in request order.
+     */
+    public List<String> requestedSeats(BookingRequest bookingRequest) {
+        if (bookingRequest.getPassengers() == null || bookingRequest.getPassengers().isEmpty()) {
+            logger.warn("No passengers in booking request for bus: {}", bookingRequest.getBusId());
+            throw new RuntimeException("At least one passenger is required");
+        }
+        List<String> requestedSeats = bookingRequest.getPassengers().stream()
+                .map(PassengerRequest::getSeatNumber)
+                .collect(Collectors.toList());
+        if (requestedSeats.stream().anyMatch(seat -> seat == null || seat.isBlank())) {
+            logger.warn("Missing seat number in booking request for bus: {}", bookingRequest.getBusId());
+            throw new RuntimeException("Seat number is required for every passenger");
+        }
+        if (new HashSet<>(requestedSeats).size() != requestedSeats.size()) {
+            logger.warn("Duplicate seat numbers in booking request for bus {}: {}", bookingRequest.getBusId(), requestedSeats);
+            throw new RuntimeException("Each passenger must have a different seat number");
+        }
+        return requestedSeats;
+    }
+
+    /**
+     * Takes the requested seats in the {@link SeatInventory}. When the request carries a hold id
+     * the seats are already held, so the hold is consumed instead of checking the seat map
+     * again; its seats only turn into booked seats once the surrounding transaction commits.
+     */
+    public void reserveSeats(BookingRequest bookingRequest, List<String> requestedSeats, String email) {
+        Long busId = bookingRequest.getBusId();
+        if (bookingRequest.getHoldId() != null) {
+            SeatHoldService.SeatHold hold = seatHoldService.consume(bookingRequest.getHoldId(), busId, email, requestedSeats);
+            logger.info("Converting hold {} on bus {} into a booking", hold.id(), busId);
+            return;
+        }
+        Set<String> conflictingSeats = seatInventory.claim(busId, requestedSeats);
+        if (!conflictingSeats.isEmpty()) {
+            logger.warn("Seats already booked for bus {}: {}", busId, conflictingSeats);
+            bookingMetrics.seatConflict();
+            throw new RuntimeException("Seats " + String.join(", ", conflictingSeats) + " are already booked");
+        }
+    }
+
+    /**
+     * Undoes {@link #reserveSeats} for a request that failed without rolling back the
+     * surrounding transaction.
+     */
+    public void unreserveSeats(BookingRequest bookingRequest, List<String> requestedSeats) {
+        if (bookingRequest.getHoldId() != null) {
+            seatHoldService.restore(bookingRequest.getHoldId());
+        } else {
+            seatInventory.release(bookingRequest.getBusId(), requestedSeats);
+            eventPublisher.publishEvent(new SeatsReleasedEvent(bookingRequest.getBusId()));
+        }
+    }
+
+    /**
+     * Saves the booking and, through the {@code Booking.passengers} cascade, its passengers.
+     * With sequence ids and JDBC batching the passenger rows go out as one batched insert.
+     */
+    public Booking persist(User user, Bus bus, BookingRequest bookingRequest) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setBus(bus);
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setStatus("CONFIRMED");
+
+        List<Passenger> passengers = new ArrayList<>(bookingRequest.getPassengers().size());
+        for (PassengerRequest pr : bookingRequest.getPassengers()) {
+            logger.info("Adding passenger: name={}, age={}, seatNumber={}", pr.getName(), pr.getAge(), pr.getSeatNumber());
+            Passenger passenger = new Passenger();
+            passenger.setName(pr.getName());
+            passenger.setAge(pr.getAge());
+            passenger.setSeatNumber(pr.getSeatNumber());
+            passenger.setBooking(booking);
+            passenger.setBus(bus);
+            passengers.add(passenger);
+        }
+        booking.setPassengers(passengers);
+
+        booking = bookingRepository.save(booking);
+        logger.info("Booking saved with ID: {}", booking.getId());
+        return booking;
+    }
+
+    /**
+     * Announces the new seat count of {@code bus} to in-memory views once the transaction commits.
+     */
+    public void busChanged(Bus bus) {
+        eventPublisher.publishEvent(new BusChangedEvent(bus));
+    }
+
+    /**
+     * Flushes pending inserts so that unique constraint violations surface here, translated,
+     * rather than at commit.
+     */
+    public void flush() {
+        bookingRepository.flush();
+    }
+
+    /**
+     * Gives seats back to the {@link SeatInventory} once the surrounding transaction commits, so
+     * nobody can claim them in memory while the database still holds them.
+     */
+    public void releaseSeatsOnCommit(Long busId, List<String> seatNumbers) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            seatInventory.release(busId, seatNumbers);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seatInventory.release(busId, seatNumbers);
+            }
+        });
+    }
+
+    /**
+     * Gives claimed seats back to the {@link SeatInventory} if the surrounding transaction
+     * does not commit. Seats taken from a hold go back to that hold instead, see
+     * {@link SeatHoldService#consume}.
+     */
+    public void releaseSeatsOnRollback(BookingRequest bookingRequest, List<String> seatNumbers) {
+        Long busId = bookingRequest.getBusId();
+        if (bookingRequest.getHoldId() != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    logger.info("Booking for bus {} rolled back, releasing seats {}", busId, seatNumbers);
+                    seatInventory.release(busId, seatNumbers);
+                    eventPublisher.publishEvent(new SeatsReleasedEvent(busId));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+
+/**
+ * Published inside the transaction that created a bus or changed its seat count. Listeners
+ * that keep in-memory views use {@code @TransactionalEventListener} so they only see
+ * committed state.
+ */
+public record BusChangedEvent(Bus bus) {
+}
@@ -2,21 +2,167 @@ package com.busbooking.bus_booking_system.service;
 
 import com.busbooking.bus_booking_system.entity.Bus;
 import com.busbooking.bus_booking_system.repository.BusRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BusService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Fills an open end of a departure window so the range scan on idx_bus_route_key_departure keeps both bounds
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private static final Map<String, Comparator<Bus>> SORTABLE = Map.of(
+            "departureTime", Comparator.comparing(Bus::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder())),
+            "arrivalTime", Comparator.comparing(Bus::getArrivalTime, Comparator.nullsLast(Comparator.naturalOrder())),
+            "price", Comparator.comparingDouble(Bus::getPrice),
+            "availableSeats", Comparator.comparingInt(Bus::getAvailableSeats));
+
     private final BusRepository busRepository;
+    private final RouteIndex routeIndex;
+    private final JourneyPlanner journeyPlanner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final BookingMetrics bookingMetrics;
 
-    public BusService(BusRepository busRepository) {
+    public BusService(BusRepository busRepository, RouteIndex routeIndex, JourneyPlanner journeyPlanner,
+                      ApplicationEventPublisher eventPublisher, EntityManager entityManager, BookingMetrics bookingMetrics) {
         this.busRepository = busRepository;
+        this.routeIndex = routeIndex;
+        this.journeyPlanner = journeyPlanner;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.bookingMetrics = bookingMetrics;
     }
 
     public List<Bus> findBuses(String from, String to) {
-        return busRepository.findByFromLocationAndToLocation(from, to);
+        return findBuses(from, to, null, null);
+    }
+
+    /**
+     * Route search served from the {@link RouteIndex}; only falls back to the database while the
+     * index is still being built at startup.
+     */
+    public List<Bus> findBuses(String from, String to, LocalDateTime departFrom, LocalDateTime departTo) {
+        return findBuses(new BusSearch(from, to, departFrom, departTo, null, null, Sort.unsorted()));
+    }
+
+    /**
+     * Filtered route search. The {@link RouteIndex} already holds each route sorted by departure
+     * with current seat counts, so price and seat filters and any other order are applied to that
+     * slice in memory. While the index is still loading the same filters go to the database as a
+     * range scan on {@code idx_bus_route_key_departure}, matching locations the same way the index does.
+     */
+    public List<Bus> findBuses(BusSearch search) {
+        return bookingMetrics.time(BookingMetrics.FIND_BUSES, () -> searchRoute(search));
+    }
+
+    private List<Bus> searchRoute(BusSearch search) {
+        double maxPrice = search.maxPrice() != null ? search.maxPrice() : Double.MAX_VALUE;
+        int minSeats = search.minSeats() != null ? search.minSeats() : Integer.MIN_VALUE;
+        if (!routeIndex.isReady()) {
+            String from = Bus.locationKey(search.from());
+            String to = Bus.locationKey(search.to());
+            if (search.departFrom() == null && search.departTo() == null) {
+                return busRepository.findRoute(from, to, minSeats, maxPrice, withTieBreak(search.sort()));
+            }
+            return busRepository.findRouteDepartingBetween(from, to,
+                    search.departFrom() != null ? search.departFrom() : EARLIEST,
+                    search.departTo() != null ? search.departTo() : LATEST,
+                    minSeats, maxPrice, withTieBreak(search.sort()));
+        }
+        List<Bus> buses = routeIndex.find(search.from(), search.to(), search.departFrom(), search.departTo());
+        if (search.maxPrice() != null || search.minSeats() != null) {
+            buses = buses.stream()
+                    .filter(bus -> bus.getPrice() <= maxPrice && bus.getAvailableSeats() >= minSeats)
+                    .toList();
+        }
+        if (search.sort().isUnsorted() || isDepartureOrder(search.sort())) {
+            return buses;
+        }
+        return buses.stream().sorted(comparator(search.sort())).toList();
+    }
+
+    /**
+     * Parses {@code property[,asc|desc]} for route searches; null or blank means departure order.
+     */
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.containsKey(property) || parts.length > 2) {
+            throw new RuntimeException("Cannot sort by " + sort + ", use one of " + String.join(", ", SORTABLE.keySet()));
+        }
+        Sort.Direction direction = parts.length == 2
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                        .orElseThrow(() -> new RuntimeException("Sort direction must be asc or desc"))
+                : Sort.Direction.ASC;
+        return Sort.by(direction, property);
+    }
+
+    private static boolean isDepartureOrder(Sort sort) {
+        Sort.Order order = sort.getOrderFor("departureTime");
+        return order != null && order.isAscending() && sort.stream().count() == 1;
+    }
+
+    private static Comparator<Bus> comparator(Sort sort) {
+        Comparator<Bus> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Bus> next = SORTABLE.get(order.getProperty());
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        // Ties keep the index's departure order
+        return comparator.thenComparing(SORTABLE.get("departureTime")).thenComparing(Bus::getId);
+    }
+
+    private static Sort withTieBreak(Sort sort) {
+        return sort.and(Sort.by("departureTime", "id"));
+    }
+
+    /**
+     * Direct and connecting journeys from the in-memory {@link JourneyPlanner}, leaving now when
+     * {@code departAfter} is null.
+     */
+    public List<JourneyPlanner.Journey> planJourneys(String from, String to, LocalDateTime departAfter, int passengers) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new RuntimeException("Both from and to are required");
+        }
+        if (passengers < 1) {
+            throw new RuntimeException("At least one passenger is required");
+        }
+        LocalDateTime after = departAfter != null ? departAfter : LocalDateTime.now();
+        return bookingMetrics.time(BookingMetrics.PLAN_JOURNEYS, () -> journeyPlanner.plan(from, to, after, passengers));
+    }
+
+    /**
+     * In-memory version tag of the bus for conditional GETs; null when it has to be loaded.
+     */
+    public String busVersion(Long id) {
+        return routeIndex.busVersion(id);
+    }
+
+    /**
+     * In-memory version tag of a route's search results; null while the route index is loading.
+     */
+    public String routeVersion(String from, String to) {
+        return routeIndex.routeVersion(from, to);
     }
 
     public Bus findById(Long id) {
@@ -27,4 +173,65 @@ public class BusService {
     public List<Bus> findAllBuses() {
         return busRepository.findAll();
     }
+
+    /**
+     * One page of the timetable ordered by (departureTime, id), starting after {@code cursor}
+     * (null for the first page). Uses a keyset predicate, so page N costs the same as page 1.
+     */
+    public BusPage findBusPage(String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Bus> buses;
+        if (cursor == null || cursor.isBlank()) {
+            buses = busRepository.findAllByOrderByDepartureTimeAscIdAsc(fetch);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            if (after.time() == null) {
+                buses = busRepository.findUndatedPageAfter(after.id(), fetch);
+            } else {
+                buses = busRepository.findPageAfter(after.time(), after.id(), fetch);
+                // Undated buses sort last, so they are only read once the dated ones run out
+                if (buses.size() < fetch.max()) {
+                    buses = new ArrayList<>(buses);
+                    buses.addAll(busRepository.findByDepartureTimeIsNullOrderByIdAsc(Limit.of(fetch.max() - buses.size())));
+                }
+            }
+        }
+        if (buses.size() <= pageSize) {
+            return new BusPage(buses, null);
+        }
+        List<Bus> page = buses.subList(0, pageSize);
+        Bus last = page.get(pageSize - 1);
+        return new BusPage(page, new KeysetCursor(last.getDepartureTime(), last.getId()).encode());
+    }
+
+    /**
+     * Hands every bus to {@code action} in (departureTime, id) order straight off a database
+     * cursor. Each row is detached once handled, so memory stays flat regardless of table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamBuses(Consumer<Bus> action) {
+        try (Stream<Bus> buses = busRepository.streamAllOrdered()) {
+            buses.forEach(bus -> {
+                action.accept(bus);
+                entityManager.detach(bus);
+            });
+        }
+    }
+
+    public Bus saveBus(Bus bus) {
+        Bus saved = busRepository.save(bus);
+        eventPublisher.publishEvent(new BusChangedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Route search criteria; every filter except {@code from} and {@code to} may be null.
+     */
+    public record BusSearch(String from, String to, LocalDateTime departFrom, LocalDateTime departTo,
+                            Double maxPrice, Integer minSeats, Sort sort) {
+    }
+
+    public record BusPage(List<Bus> buses, String nextCursor) {
+    }
 }
\ No newline at end of file
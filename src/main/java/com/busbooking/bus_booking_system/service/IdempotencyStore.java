@@ -0,0 +1,158 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} a user sends, so a client retrying a
+ * request gets the original answer back instead of running it again. Keys live in a bounded,
+ * expiring in-memory cache, scoped to the user. A duplicate that arrives while the first request is
+ * still running waits for that request's result rather than racing it. Server errors are not
+ * remembered, so those can be retried for real, unless the action reports with an
+ * {@link OutcomePendingException} that its work may still complete: then the key stays taken until
+ * the real outcome is known, and duplicates wait for and replay that.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final long waitMs;
+    private final Cache<String, Execution> executions;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${booking.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${booking.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${booking.idempotency.wait-ms:10000}") long waitMs) {
+        this.objectMapper = objectMapper;
+        this.waitMs = waitMs;
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} the first time {@code key} is seen for this user and returns its response.
+     * Later calls with the same key and request get that response again, marked with
+     * {@value #REPLAYED_HEADER}; calls reusing the key for a different request get 422.
+     */
+    public ResponseEntity<?> execute(String email, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = email + '\n' + key;
+        Execution execution = new Execution(fingerprint(request), new CompletableFuture<>());
+        Execution existing = executions.asMap().putIfAbsent(scopedKey, execution);
+        if (existing != null) {
+            return replay(email, key, execution.fingerprint, existing);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (OutcomePendingException e) {
+            logger.info("Idempotency key {} of user {} stays taken until its request settles", key, email);
+            e.outcome.whenComplete((outcome, failure) -> settle(scopedKey, execution, outcome, failure));
+            return e.response;
+        } catch (RuntimeException e) {
+            settle(scopedKey, execution, null, e);
+            throw e;
+        }
+        settle(scopedKey, execution, response, null);
+        return response;
+    }
+
+    // Failures and server errors mean nothing was done, so the key is forgotten for a real retry
+    private void settle(String scopedKey, Execution execution, ResponseEntity<?> response, Throwable failure) {
+        if (failure != null || response.getStatusCode().is5xxServerError()) {
+            executions.asMap().remove(scopedKey, execution);
+        }
+        if (failure != null) {
+            execution.response.completeExceptionally(failure);
+        } else {
+            execution.response.complete(response);
+        }
+    }
+
+    private ResponseEntity<?> replay(String email, String key, byte[] fingerprint, Execution existing) {
+        if (!Arrays.equals(fingerprint, existing.fingerprint)) {
+            logger.warn("Idempotency key {} of user {} reused for a different request", key, email);
+            return ResponseEntity.unprocessableEntity()
+                    .body(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        ResponseEntity<?> original;
+        try {
+            original = existing.response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            // The original failed without a response and was forgotten; this duplicate reports the same
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request", e);
+        }
+        logger.debug("Replaying response for idempotency key {} of user {}", key, email);
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint request", e);
+        }
+    }
+
+    /**
+     * Thrown by an action that has to answer before its work is known to have finished, such as a
+     * booking that timed out while its transaction may still commit. The caller gets {@code response};
+     * the key stays taken until {@code outcome} completes and then replays that outcome.
+     */
+    public static class OutcomePendingException extends RuntimeException {
+
+        private final transient ResponseEntity<?> response;
+        private final transient CompletionStage<ResponseEntity<?>> outcome;
+
+        public OutcomePendingException(ResponseEntity<?> response, CompletionStage<ResponseEntity<?>> outcome) {
+            super("Outcome pending");
+            this.response = response;
+            this.outcome = outcome;
+        }
+
+        public ResponseEntity<?> getResponse() {
+            return response;
+        }
+    }
+
+    private record Execution(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
\ No newline at end of file
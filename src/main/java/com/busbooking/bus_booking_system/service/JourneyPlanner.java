@@ -0,0 +1,350 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-leg journey planning with a connection scan. Every bus is one connection between two
+ * stops; all of them sit in departure order in flat arrays, so a query is a few linear passes
+ * over primitives with no database access. Pass {@code k} finds the earliest arrival at every
+ * stop using at most {@code k} buses, which yields both the fewest-transfer journey (first pass
+ * that reaches the destination) and the earliest-arrival one (last pass).
+ * <p>
+ * Built on startup and kept current from {@link BusChangedEvent}s after commit: a seat count
+ * change swaps one array slot, a new or retimed bus is spliced into a copy of the arrays.
+ */
+@Component
+public class JourneyPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(JourneyPlanner.class);
+
+    private static final Comparator<Bus> BY_DEPARTURE = Comparator
+            .comparing(Bus::getDepartureTime)
+            .thenComparing(Bus::getId);
+
+    private final BusRepository busRepository;
+    private final long minTransferSeconds;
+    private final int maxLegs;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Written under writeLock only; a stop keeps its id for the lifetime of the planner
+    private final Map<String, Integer> stopIds = new HashMap<>();
+    private volatile Timetable timetable = Timetable.EMPTY;
+
+    public JourneyPlanner(BusRepository busRepository,
+                          @Value("${booking.journeys.min-transfer-minutes:15}") long minTransferMinutes,
+                          @Value("${booking.journeys.max-legs:3}") int maxLegs) {
+        this.busRepository = busRepository;
+        this.minTransferSeconds = TimeUnit.MINUTES.toSeconds(minTransferMinutes);
+        this.maxLegs = Math.max(1, maxLegs);
+    }
+
+    /**
+     * Pareto-optimal journeys from {@code from} to {@code to} leaving at or after
+     * {@code departAfter}: the fewest-transfer journey first, then each journey that arrives
+     * earlier at the cost of more transfers, ending with the earliest arrival. Every leg has at
+     * least {@code passengers} seats free and connections respect the minimum transfer time.
+     */
+    public List<Journey> plan(String from, String to, LocalDateTime departAfter, int passengers) {
+        Timetable t = timetable;
+        Integer origin = t.stops.get(RouteIndex.normalize(from));
+        Integer target = t.stops.get(RouteIndex.normalize(to));
+        if (origin == null || target == null || origin.equals(target)) {
+            return List.of();
+        }
+        int stopCount = t.stops.size();
+        int first = t.firstDepartingAtOrAfter(seconds(departAfter));
+        long[] ready = new long[stopCount];
+        Arrays.fill(ready, Long.MAX_VALUE);
+        ready[origin] = seconds(departAfter);
+        long[] arrival = new long[stopCount];
+        Arrays.fill(arrival, Long.MAX_VALUE);
+        arrival[origin] = ready[origin];
+        // reachedBy[k][stop]: connection that first got to the stop in pass k, or -1
+        int[][] reachedBy = new int[maxLegs + 1][];
+
+        List<Journey> journeys = new ArrayList<>();
+        long bestArrival = Long.MAX_VALUE;
+        for (int k = 1; k <= maxLegs; k++) {
+            long[] nextArrival = arrival.clone();
+            int[] parent = new int[stopCount];
+            Arrays.fill(parent, -1);
+            for (int c = first; c < t.size && t.departures[c] < bestArrival; c++) {
+                int arrivalStop = t.arrivalStops[c];
+                if (t.departures[c] < ready[t.departureStops[c]] || t.arrivals[c] >= nextArrival[arrivalStop]) {
+                    continue;
+                }
+                if (t.buses.get(c).getAvailableSeats() < passengers) {
+                    continue;
+                }
+                nextArrival[arrivalStop] = t.arrivals[c];
+                parent[arrivalStop] = c;
+            }
+            reachedBy[k] = parent;
+            if (nextArrival[target] < bestArrival) {
+                bestArrival = nextArrival[target];
+                journeys.add(journey(t, reachedBy, k, origin, target));
+            }
+            boolean improved = false;
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (parent[stop] >= 0) {
+                    ready[stop] = Math.min(ready[stop], nextArrival[stop] + minTransferSeconds);
+                    improved = true;
+                }
+            }
+            if (!improved) {
+                break;
+            }
+            arrival = nextArrival;
+        }
+        return journeys;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            List<Bus> buses = new ArrayList<>();
+            for (Bus bus : busRepository.findAll()) {
+                if (isConnection(bus)) {
+                    buses.add(RouteIndex.copyOf(bus));
+                }
+            }
+            buses.sort(BY_DEPARTURE);
+            int n = buses.size();
+            long[] departures = new long[n];
+            long[] arrivals = new long[n];
+            int[] departureStops = new int[n];
+            int[] arrivalStops = new int[n];
+            long[] busIds = new long[n];
+            AtomicReferenceArray<Bus> slots = new AtomicReferenceArray<>(n);
+            for (int i = 0; i < n; i++) {
+                Bus bus = buses.get(i);
+                departures[i] = seconds(bus.getDepartureTime());
+                arrivals[i] = seconds(bus.getArrivalTime());
+                departureStops[i] = stopId(bus.getFromLocation());
+                arrivalStops[i] = stopId(bus.getToLocation());
+                busIds[i] = bus.getId();
+                slots.set(i, bus);
+            }
+            timetable = new Timetable(departures, arrivals, departureStops, arrivalStops, busIds, slots, Map.copyOf(stopIds));
+            logger.info("Journey planner built: {} connections between {} stops", n, stopIds.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusChanged(BusChangedEvent event) {
+        if (event.bus() == null || event.bus().getId() == null) {
+            return;
+        }
+        Bus bus = RouteIndex.copyOf(event.bus());
+        writeLock.lock();
+        try {
+            Timetable t = timetable;
+            int at = t.indexOf(bus.getId());
+            // Events of concurrent transactions arrive in any order; keep the newest version
+            if (at >= 0 && t.buses.get(at).getVersion() >= bus.getVersion()) {
+                return;
+            }
+            if (at >= 0 && sameConnection(t.buses.get(at), bus)) {
+                t.buses.set(at, bus);
+                return;
+            }
+            t = t.without(at);
+            if (isConnection(bus)) {
+                int stopCount = stopIds.size();
+                int departureStop = stopId(bus.getFromLocation());
+                int arrivalStop = stopId(bus.getToLocation());
+                t = t.with(bus, departureStop, arrivalStop, stopIds.size() == stopCount ? t.stops : Map.copyOf(stopIds));
+            }
+            timetable = t;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int stopId(String location) {
+        return stopIds.computeIfAbsent(RouteIndex.normalize(location), name -> stopIds.size());
+    }
+
+    private Journey journey(Timetable t, int[][] reachedBy, int legs, int origin, int target) {
+        List<Bus> path = new ArrayList<>(legs);
+        int stop = target;
+        for (int k = legs; k >= 1 && stop != origin; k--) {
+            int c = reachedBy[k][stop];
+            if (c < 0) {
+                continue; // reached with fewer buses in an earlier pass
+            }
+            path.add(t.buses.get(c));
+            stop = t.departureStops[c];
+        }
+        Collections.reverse(path);
+        return new Journey(path.get(0).getDepartureTime(), path.get(path.size() - 1).getArrivalTime(),
+                path.size() - 1, path);
+    }
+
+    private static boolean isConnection(Bus bus) {
+        return bus.getFromLocation() != null && bus.getToLocation() != null
+                && bus.getDepartureTime() != null && bus.getArrivalTime() != null
+                && !bus.getArrivalTime().isBefore(bus.getDepartureTime())
+                && !RouteIndex.normalize(bus.getFromLocation()).equals(RouteIndex.normalize(bus.getToLocation()));
+    }
+
+    private static boolean sameConnection(Bus a, Bus b) {
+        return RouteIndex.normalize(a.getFromLocation()).equals(RouteIndex.normalize(b.getFromLocation()))
+                && RouteIndex.normalize(a.getToLocation()).equals(RouteIndex.normalize(b.getToLocation()))
+                && a.getDepartureTime().equals(b.getDepartureTime())
+                && a.getArrivalTime().equals(b.getArrivalTime());
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Buses of one journey in travel order; {@code transfers} is one less than the number of legs.
+     */
+    public record Journey(LocalDateTime departureTime, LocalDateTime arrivalTime, int transfers, List<Bus> legs) {
+    }
+
+    /**
+     * Connections sorted by (departure, bus id) as parallel arrays. Only the bus slots are
+     * mutable, and only to swap in a newer copy of the same connection.
+     */
+    private static final class Timetable {
+
+        static final Timetable EMPTY = new Timetable(new long[0], new long[0], new int[0], new int[0],
+                new long[0], new AtomicReferenceArray<>(0), Map.of());
+
+        final int size;
+        final long[] departures;
+        final long[] arrivals;
+        final int[] departureStops;
+        final int[] arrivalStops;
+        final long[] busIds;
+        final AtomicReferenceArray<Bus> buses;
+        // The stop ids known when this timetable was published
+        final Map<String, Integer> stops;
+        // bus id -> connection index, so a seat count change finds its slot without a scan
+        private final Map<Long, Integer> positions;
+
+        Timetable(long[] departures, long[] arrivals, int[] departureStops, int[] arrivalStops,
+                  long[] busIds, AtomicReferenceArray<Bus> buses, Map<String, Integer> stops) {
+            this.size = departures.length;
+            this.departures = departures;
+            this.arrivals = arrivals;
+            this.departureStops = departureStops;
+            this.arrivalStops = arrivalStops;
+            this.busIds = busIds;
+            this.buses = buses;
+            this.stops = stops;
+            this.positions = HashMap.newHashMap(size);
+            for (int i = 0; i < size; i++) {
+                positions.put(busIds[i], i);
+            }
+        }
+
+        int firstDepartingAtOrAfter(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departures[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int indexOf(long busId) {
+            return positions.getOrDefault(busId, -1);
+        }
+
+        Timetable without(int at) {
+            if (at < 0) {
+                return this;
+            }
+            return new Timetable(remove(departures, at), remove(arrivals, at), remove(departureStops, at),
+                    remove(arrivalStops, at), remove(busIds, at), copy(buses, at, -1, null), stops);
+        }
+
+        Timetable with(Bus bus, int departureStop, int arrivalStop, Map<String, Integer> stops) {
+            long departure = seconds(bus.getDepartureTime());
+            int at = firstDepartingAtOrAfter(departure);
+            while (at < size && departures[at] == departure && busIds[at] < bus.getId()) {
+                at++;
+            }
+            return new Timetable(insert(departures, at, departure), insert(arrivals, at, seconds(bus.getArrivalTime())),
+                    insert(departureStops, at, departureStop), insert(arrivalStops, at, arrivalStop),
+                    insert(busIds, at, bus.getId()), copy(buses, -1, at, bus), stops);
+        }
+
+        private static long[] remove(long[] values, int at) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, at);
+            System.arraycopy(values, at + 1, result, at, values.length - at - 1);
+            return result;
+        }
+
+        private static int[] remove(int[] values, int at) {
+            int[] result = new int[values.length - 1];
+            System.arraycopy(values, 0, result, 0, at);
+            System.arraycopy(values, at + 1, result, at, values.length - at - 1);
+            return result;
+        }
+
+        private static long[] insert(long[] values, int at, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, at);
+            result[at] = value;
+            System.arraycopy(values, at, result, at + 1, values.length - at);
+            return result;
+        }
+
+        private static int[] insert(int[] values, int at, int value) {
+            int[] result = new int[values.length + 1];
+            System.arraycopy(values, 0, result, 0, at);
+            result[at] = value;
+            System.arraycopy(values, at, result, at + 1, values.length - at);
+            return result;
+        }
+
+        private static AtomicReferenceArray<Bus> copy(AtomicReferenceArray<Bus> buses, int removeAt, int insertAt, Bus bus) {
+            int length = buses.length() + (removeAt >= 0 ? -1 : 0) + (insertAt >= 0 ? 1 : 0);
+            AtomicReferenceArray<Bus> result = new AtomicReferenceArray<>(length);
+            int j = 0;
+            for (int i = 0; i <= buses.length(); i++) {
+                if (i == insertAt) {
+                    result.set(j++, bus);
+                }
+                if (i < buses.length() && i != removeAt) {
+                    result.set(j++, buses.get(i));
+                }
+            }
+            return result;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.busbooking.bus_booking_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paginated listings: the (time, id) sort key of the last row on a
+ * page, e.g. a bus's departure time or a booking's booking time.
+ */
+public record KeysetCursor(LocalDateTime time, Long id) {
+
+    public String encode() {
+        String raw = (time == null ? "" : time.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String time = raw.substring(0, separator);
+            return new KeysetCursor(time.isEmpty() ? null : LocalDateTime.parse(time),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory route search index: normalized (from, to) pair to that route's buses sorted by
+ * departure time. Each route is an immutable array replaced copy-on-write, so reads take no
+ * lock and never see a half-applied update. Built on startup and kept current from
+ * {@link BusChangedEvent}s after commit.
+ * <p>
+ * It also answers conditional GETs without touching the database: every bus has a version tag
+ * (see {@link #versionOf(Bus)}) and every route a version that moves whenever one of its buses
+ * changes.
+ */
+@Component
+public class RouteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteIndex.class);
+
+    private static final Comparator<Bus> BY_DEPARTURE = Comparator
+            .comparing(Bus::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Bus::getId);
+
+    private final BusRepository busRepository;
+    private final Map<RouteKey, Bus[]> routes = new ConcurrentHashMap<>();
+    private final Map<Long, RouteKey> routeOfBus = new ConcurrentHashMap<>();
+    private final Map<Long, Bus> indexedBuses = new ConcurrentHashMap<>();
+    private final Map<RouteKey, Long> routeVersions = new ConcurrentHashMap<>();
+    // Route versions restart with the process, so the boot time keeps old tags from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    // Not synchronized: rebuild() holds it across a JDBC query, which would pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public RouteIndex(BusRepository busRepository) {
+        this.busRepository = busRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Buses on the route departing within [{@code departFrom}, {@code departTo}]; either bound
+     * may be null. The returned buses are shared snapshots and must not be modified.
+     */
+    public List<Bus> find(String from, String to, LocalDateTime departFrom, LocalDateTime departTo) {
+        Bus[] buses = routes.get(RouteKey.of(from, to));
+        if (buses == null) {
+            return List.of();
+        }
+        int start = departFrom == null ? 0 : firstDepartingAtOrAfter(buses, departFrom);
+        List<Bus> result = new ArrayList<>();
+        for (int i = start; i < buses.length; i++) {
+            LocalDateTime departure = buses[i].getDepartureTime();
+            if (departTo != null && (departure == null || departure.isAfter(departTo))) {
+                break;
+            }
+            result.add(buses[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Version tag of the bus as last committed, or null when the index does not know it.
+     */
+    public String busVersion(Long busId) {
+        Bus bus = indexedBuses.get(busId);
+        return bus == null ? null : versionOf(bus);
+    }
+
+    /**
+     * Version tag covering every bus on the route, or null while the index is still loading.
+     */
+    public String routeVersion(String from, String to) {
+        if (!ready) {
+            return null;
+        }
+        return epoch + "." + routeVersions.getOrDefault(RouteKey.of(from, to), 0L);
+    }
+
+    /**
+     * Identifies one representation of the bus: the entity version, which every update moves,
+     * seat count updates included.
+     */
+    public static String versionOf(Bus bus) {
+        return Long.toString(bus.getVersion());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<RouteKey, List<Bus>> grouped = new HashMap<>();
+            for (Bus bus : busRepository.findAll()) {
+                grouped.computeIfAbsent(RouteKey.of(bus.getFromLocation(), bus.getToLocation()), k -> new ArrayList<>())
+                        .add(copyOf(bus));
+            }
+            routes.clear();
+            routeOfBus.clear();
+            indexedBuses.clear();
+            long version = changes.incrementAndGet();
+            routeVersions.replaceAll((key, previous) -> version);
+            grouped.forEach((key, buses) -> {
+                Bus[] sorted = buses.toArray(new Bus[0]);
+                Arrays.sort(sorted, BY_DEPARTURE);
+                routes.put(key, sorted);
+                routeVersions.put(key, version);
+                buses.forEach(bus -> {
+                    routeOfBus.put(bus.getId(), key);
+                    indexedBuses.put(bus.getId(), bus);
+                });
+            });
+            ready = true;
+            logger.info("Route index built: {} routes, {} buses", routes.size(), routeOfBus.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change. Events of concurrent transactions arrive in any order, so one
+     * that is not newer than the indexed bus, by entity version, is dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusChanged(BusChangedEvent event) {
+        if (event.bus() == null || event.bus().getId() == null) {
+            return;
+        }
+        Bus bus = copyOf(event.bus());
+        RouteKey key = RouteKey.of(bus.getFromLocation(), bus.getToLocation());
+        writeLock.lock();
+        try {
+            Bus indexed = indexedBuses.get(bus.getId());
+            if (indexed != null && indexed.getVersion() >= bus.getVersion()) {
+                logger.debug("Ignoring stale change of bus {} at version {}", bus.getId(), bus.getVersion());
+                return;
+            }
+            RouteKey previous = routeOfBus.put(bus.getId(), key);
+            long version = changes.incrementAndGet();
+            if (previous != null && !previous.equals(key)) {
+                routes.computeIfPresent(previous, (k, buses) -> {
+                    Bus[] remaining = without(buses, bus.getId());
+                    return remaining.length == 0 ? null : remaining;
+                });
+                routeVersions.put(previous, version);
+            }
+            routes.put(key, with(routes.get(key), bus));
+            // The route changes before its version, so a tag read before a search never outruns the result
+            routeVersions.put(key, version);
+            indexedBuses.put(bus.getId(), bus);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static Bus[] with(Bus[] buses, Bus bus) {
+        Bus[] base = buses == null ? new Bus[0] : without(buses, bus.getId());
+        Bus[] updated = Arrays.copyOf(base, base.length + 1);
+        int at = Arrays.binarySearch(base, bus, BY_DEPARTURE);
+        int insertAt = at >= 0 ? at : -at - 1;
+        System.arraycopy(base, insertAt, updated, insertAt + 1, base.length - insertAt);
+        updated[insertAt] = bus;
+        return updated;
+    }
+
+    private static Bus[] without(Bus[] buses, Long busId) {
+        for (int i = 0; i < buses.length; i++) {
+            if (buses[i].getId().equals(busId)) {
+                Bus[] updated = new Bus[buses.length - 1];
+                System.arraycopy(buses, 0, updated, 0, i);
+                System.arraycopy(buses, i + 1, updated, i, buses.length - i - 1);
+                return updated;
+            }
+        }
+        return buses;
+    }
+
+    private static int firstDepartingAtOrAfter(Bus[] buses, LocalDateTime departFrom) {
+        int low = 0;
+        int high = buses.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LocalDateTime departure = buses[mid].getDepartureTime();
+            if (departure != null && departure.isBefore(departFrom)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static Bus copyOf(Bus bus) {
+        Bus copy = new Bus();
+        copy.setId(bus.getId());
+        copy.setFromLocation(bus.getFromLocation());
+        copy.setToLocation(bus.getToLocation());
+        copy.setDepartureTime(bus.getDepartureTime());
+        copy.setArrivalTime(bus.getArrivalTime());
+        copy.setPrice(bus.getPrice());
+        copy.setAvailableSeats(bus.getAvailableSeats());
+        copy.setVersion(bus.getVersion());
+        return copy;
+    }
+
+    static String normalize(String location) {
+        return Bus.locationKey(location);
+    }
+
+    private record RouteKey(String from, String to) {
+        static RouteKey of(String from, String to) {
+            return new RouteKey(normalize(from), normalize(to));
+        }
+    }
+}
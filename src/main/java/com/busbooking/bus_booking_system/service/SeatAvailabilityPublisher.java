@@ -0,0 +1,280 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live seat availability over Server-Sent Events. Every watched bus has one channel holding the
+ * last published occupancy and its subscribers. A committed {@link BusChangedEvent}, or a
+ * {@link SeatsReleasedEvent} for claims that were undone, only marks the channel dirty; after
+ * {@code booking.seats.stream.coalesce-ms} a single flush diffs the {@link SeatInventory} against
+ * that snapshot, serializes the delta once and queues the same bytes for every subscriber, so a
+ * burst of bookings costs one diff and one message per watcher. Idle watchers are just parked
+ * emitters: no thread, timer or query each.
+ * <p>
+ * Nothing is written to a client under the channel lock. Each watcher sends its queued messages
+ * in order on a virtual thread of its own, so a stalled client holds up only itself.
+ * <p>
+ * The seat map also holds claims of transactions still in flight, so a delta may show a seat as
+ * booked before its booking commits; should that booking roll back, the {@link SeatsReleasedEvent}
+ * makes the next delta release it again. Seat counts only come from committed events and the
+ * newest bus version wins, whatever order the events arrive in.
+ */
+@Service
+public class SeatAvailabilityPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatAvailabilityPublisher.class);
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String SEATS_EVENT = "seats";
+
+    private final BusRepository busRepository;
+    private final SeatInventory seatInventory;
+    private final ObjectMapper objectMapper;
+    private final long coalesceMs;
+    private final long streamTimeoutMs;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final HashedTimerWheel timerWheel;
+    // Fan-out blocks on client sockets, so it never runs on the timer thread
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SeatAvailabilityPublisher(BusRepository busRepository, SeatInventory seatInventory, ObjectMapper objectMapper,
+                                     @Value("${booking.seats.stream.coalesce-ms:250}") long coalesceMs,
+                                     @Value("${booking.seats.stream.timeout-ms:1800000}") long streamTimeoutMs) {
+        this.busRepository = busRepository;
+        this.seatInventory = seatInventory;
+        this.objectMapper = objectMapper;
+        this.coalesceMs = coalesceMs;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.timerWheel = new HashedTimerWheel("seat-stream-coalesce", 50, TimeUnit.MILLISECONDS, 64);
+    }
+
+    /**
+     * Opens a stream for the bus. The first message is a {@value #SNAPSHOT_EVENT} of the occupied
+     * seats; {@value #SEATS_EVENT} deltas follow whenever the bus changes.
+     */
+    public SseEmitter subscribe(Long busId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(busId, Channel::new);
+            Watcher watcher;
+            channel.lock.lock();
+            try {
+                if (channel.closed) {
+                    continue;
+                }
+                if (channel.occupied == null) {
+                    Bus bus = busRepository.findById(busId).orElse(null);
+                    if (bus == null) {
+                        close(channel);
+                        throw new RuntimeException("Bus not found");
+                    }
+                    channel.latest.accumulateAndGet(SeatCount.of(bus), SeatCount::newer);
+                    channel.availableSeats = channel.latest.get().availableSeats();
+                    channel.occupied = seatInventory.occupiedSeats(busId);
+                }
+                watcher = new Watcher(channel, new SseEmitter(streamTimeoutMs));
+                watcher.emitter.onCompletion(() -> unsubscribe(channel, watcher));
+                watcher.emitter.onTimeout(() -> unsubscribe(channel, watcher));
+                watcher.emitter.onError(e -> unsubscribe(channel, watcher));
+                // Queued before the watcher is visible to a flush, so it always goes out first
+                watcher.outbox.add(event(SNAPSHOT_EVENT, new SeatSnapshot(busId, channel.availableSeats, channel.occupied)));
+                channel.subscribers.add(watcher);
+            } finally {
+                channel.lock.unlock();
+            }
+            // Not yet connected to the response, so this only buffers
+            watcher.drain();
+            return watcher.emitter;
+        }
+    }
+
+    public int subscriberCount(Long busId) {
+        Channel channel = channels.get(busId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusChanged(BusChangedEvent event) {
+        Bus bus = event.bus();
+        if (bus == null || bus.getId() == null) {
+            return;
+        }
+        Channel channel = channels.get(bus.getId());
+        if (channel == null) {
+            return;
+        }
+        channel.latest.accumulateAndGet(SeatCount.of(bus), SeatCount::newer);
+        scheduleFlush(channel);
+    }
+
+    @EventListener
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        Channel channel = channels.get(event.busId());
+        if (channel != null) {
+            scheduleFlush(channel);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timerWheel.close();
+        fanOut.shutdownNow();
+        channels.values().forEach(channel -> List.copyOf(channel.subscribers).forEach(watcher -> watcher.emitter.complete()));
+    }
+
+    private void scheduleFlush(Channel channel) {
+        if (channel.flushScheduled.compareAndSet(false, true)) {
+            timerWheel.schedule(() -> fanOut.execute(() -> flush(channel)), coalesceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(Channel channel) {
+        channel.flushScheduled.set(false);
+        List<Watcher> watchers;
+        channel.lock.lock();
+        try {
+            if (channel.closed || channel.occupied == null) {
+                return;
+            }
+            Set<String> occupied = seatInventory.occupiedSeats(channel.busId);
+            Set<String> booked = new LinkedHashSet<>(occupied);
+            booked.removeAll(channel.occupied);
+            Set<String> released = new LinkedHashSet<>(channel.occupied);
+            released.removeAll(occupied);
+            Integer availableSeats = channel.latest.get().availableSeats();
+            if (booked.isEmpty() && released.isEmpty() && availableSeats.equals(channel.availableSeats)) {
+                return;
+            }
+            channel.occupied = occupied;
+            channel.availableSeats = availableSeats;
+
+            Set<ResponseBodyEmitter.DataWithMediaType> delta =
+                    event(SEATS_EVENT, new SeatDelta(channel.busId, availableSeats, booked, released));
+            watchers = List.copyOf(channel.subscribers);
+            watchers.forEach(watcher -> watcher.outbox.add(delta));
+        } finally {
+            channel.lock.unlock();
+        }
+        watchers.forEach(watcher -> fanOut.execute(watcher::drain));
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, Object payload) {
+        try {
+            return SseEmitter.event().name(name)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize seat update", e);
+        }
+    }
+
+    private void unsubscribe(Channel channel, Watcher watcher) {
+        channel.lock.lock();
+        try {
+            if (channel.subscribers.remove(watcher) && channel.subscribers.isEmpty()) {
+                close(channel);
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    private void close(Channel channel) {
+        channel.closed = true;
+        channels.remove(channel.busId, channel);
+    }
+
+    public record SeatSnapshot(Long busId, Integer availableSeats, Set<String> occupied) {
+    }
+
+    public record SeatDelta(Long busId, Integer availableSeats, Set<String> booked, Set<String> released) {
+    }
+
+    private record SeatCount(long version, int availableSeats) {
+        static SeatCount of(Bus bus) {
+            return new SeatCount(bus.getVersion(), bus.getAvailableSeats());
+        }
+
+        static SeatCount newer(SeatCount current, SeatCount next) {
+            return current == null || next.version > current.version ? next : current;
+        }
+    }
+
+    private static final class Channel {
+        private final Long busId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Watcher> subscribers = new ArrayList<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        // Newest committed seat count seen, by bus version
+        private final AtomicReference<SeatCount> latest = new AtomicReference<>();
+        private Set<String> occupied;
+        private Integer availableSeats;
+        private boolean closed;
+
+        Channel(Long busId) {
+            this.busId = busId;
+        }
+    }
+
+    /**
+     * One subscriber and the messages queued for it. Whoever finds it idle drains it; a failed
+     * send drops the watcher.
+     */
+    private final class Watcher {
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Watcher(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void drain() {
+            while (!outbox.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    Set<ResponseBodyEmitter.DataWithMediaType> message;
+                    while ((message = outbox.poll()) != null) {
+                        emitter.send(message);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping disconnected seat watcher of bus {}", channel.busId);
+                    outbox.clear();
+                    unsubscribe(channel, this);
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes to {@code Bus.availableSeats}, for bookings, cancellations and seat holds alike. The
+ * count is changed with native updates, so this also keeps the cached bus honest.
+ */
+@Component
+public class SeatCounter {
+
+    private final BusRepository busRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SeatCounter(BusRepository busRepository, EntityManagerFactory entityManagerFactory) {
+        this.busRepository = busRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Conditionally takes {@code count} seats off the bus row and evicts that bus from the
+     * second-level cache.
+     *
+     * @return false when the bus is missing or has too few seats left
+     */
+    public boolean claimSeats(Long busId, int count) {
+        if (busRepository.claimSeats(busId, count) == 0) {
+            return false;
+        }
+        evictBus(busId);
+        return true;
+    }
+
+    /**
+     * Gives {@code count} seats back to the bus row and evicts that bus from the second-level cache.
+     */
+    public void releaseSeats(Long busId, int count) {
+        busRepository.releaseSeats(busId, count);
+        evictBus(busId);
+    }
+
+    /**
+     * The seat count is written behind Hibernate's back, so the cached bus goes now, letting the
+     * rest of this transaction read its own update, and again when the transaction ends, dropping
+     * any uncommitted count another reader may have cached in between.
+     */
+    private void evictBus(Long busId) {
+        entityManagerFactory.getCache().evict(Bus.class, busId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManagerFactory.getCache().evict(Bus.class, busId);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Hold;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.HoldRepository;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Temporary seat holds. A hold takes its seats off the bus count with the same conditional
+ * decrement a booking uses and marks them held in the {@link SeatInventory}, so nobody else can
+ * book them; both are given back when the hold is released or its TTL runs out. Expiry is driven
+ * by a {@link HashedTimerWheel} rather than a database polling job and runs on its own threads,
+ * so a slow database never stalls the wheel.
+ * <p>
+ * Held seats live only in memory, but each hold also writes a {@link Hold} row in the transaction
+ * that takes its count. Whoever deletes that row settles the count: a release or expiry gives it
+ * back, a booking keeps it. A periodic sweep, which also runs at startup, gives back rows that
+ * outlived their TTL, so the holds of a crashed node do not shrink the bus for good.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    // Taken by a release or an expiry: the hold's seats are on their way back to the bus
+    private static final Object RELEASED = new Object();
+    // A live node expires its own holds long before the sweep gets to them
+    private static final long SWEEP_GRACE_SECONDS = 60;
+
+    private final BusRepository busRepository;
+    private final HoldRepository holdRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlSeconds;
+    private final int maxSeats;
+    private final long sweepSeconds;
+    private final Map<String, ActiveHold> holds = new ConcurrentHashMap<>();
+    private final HashedTimerWheel timerWheel;
+    private final ExecutorService expiry = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SeatHoldService(BusRepository busRepository, HoldRepository holdRepository, SeatInventory seatInventory,
+                           SeatCounter seatCounter, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${booking.holds.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${booking.holds.max-seats:10}") int maxSeats,
+                           @Value("${booking.holds.sweep-seconds:60}") long sweepSeconds) {
+        this.busRepository = busRepository;
+        this.holdRepository = holdRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlSeconds = ttlSeconds;
+        this.maxSeats = maxSeats;
+        this.sweepSeconds = Math.max(1, sweepSeconds);
+        this.timerWheel = new HashedTimerWheel("seat-hold-expiry", 100, TimeUnit.MILLISECONDS, 512);
+    }
+
+    public SeatHold hold(Long busId, List<String> seatNumbers, String email) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            throw new RuntimeException("At least one seat is required");
+        }
+        if (seatNumbers.size() > maxSeats) {
+            throw new RuntimeException("At most " + maxSeats + " seats can be held at once");
+        }
+        if (seatNumbers.stream().anyMatch(seat -> seat == null || seat.isBlank())) {
+            throw new RuntimeException("Seat numbers must not be blank");
+        }
+        if (new HashSet<>(seatNumbers).size() != seatNumbers.size()) {
+            throw new RuntimeException("Each seat can only be held once");
+        }
+        if (!busRepository.existsById(busId)) {
+            throw new RuntimeException("Bus not found");
+        }
+
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), busId, List.copyOf(seatNumbers), email,
+                Instant.now().plusSeconds(ttlSeconds));
+        Set<String> conflictingSeats = seatInventory.hold(busId, hold.seats(), hold.id());
+        if (!conflictingSeats.isEmpty()) {
+            logger.warn("Cannot hold seats on bus {}, already taken: {}", busId, conflictingSeats);
+            throw new RuntimeException("Seats " + String.join(", ", conflictingSeats) + " are already booked or held");
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!seatCounter.claimSeats(busId, hold.seats().size())) {
+                    throw new RuntimeException("Not enough seats available");
+                }
+                holdRepository.save(rowOf(hold));
+                busChanged(busId);
+            });
+        } catch (RuntimeException e) {
+            seatInventory.releaseHold(busId, hold.seats(), hold.id());
+            eventPublisher.publishEvent(new SeatsReleasedEvent(busId));
+            throw e;
+        }
+
+        ActiveHold active = new ActiveHold(hold);
+        holds.put(hold.id(), active);
+        active.timeout = timerWheel.schedule(() -> expiry.execute(() -> expire(hold.id())), ttlSeconds, TimeUnit.SECONDS);
+        logger.info("Held seats {} on bus {} for user {} until {}", seatNumbers, busId, email, hold.expiresAt());
+        return hold;
+    }
+
+    /**
+     * Hands a live hold over to a booking so its seats can be turned into passengers; the hold
+     * already took their count. Its {@link Hold} row is deleted in the caller's transaction, so
+     * the count is never both booked and given back. Inside a transaction the hold's seats only
+     * become booked seats in the {@link SeatInventory} once that transaction commits; on rollback,
+     * or when the caller {@link #restore restores} it, the hold is live again and a retry can use
+     * it. Outside a transaction that happens at once. A hold whose seats differ from
+     * {@code seatNumbers} is left untouched.
+     */
+    public SeatHold consume(String holdId, Long busId, String email, Collection<String> seatNumbers) {
+        ActiveHold active = holds.get(holdId);
+        if (active == null || !active.hold.busId().equals(busId) || !active.hold.email().equals(email)) {
+            throw new RuntimeException("Seat hold not found or expired");
+        }
+        if (seatNumbers != null && !new HashSet<>(active.hold.seats()).equals(new HashSet<>(seatNumbers))) {
+            logger.warn("Seats {} do not match hold {} seats {}", seatNumbers, holdId, active.hold.seats());
+            throw new RuntimeException("Passenger seats must match the held seats " + String.join(", ", active.hold.seats()));
+        }
+        Object consumer = new Object();
+        if (!active.consumer.compareAndSet(null, consumer)) {
+            throw new RuntimeException("Seat hold not found or expired");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settleRow(active);
+            booked(active);
+            return active.hold;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED && active.consumer.get() == consumer) {
+                    booked(active);
+                } else if (status != STATUS_COMMITTED) {
+                    restore(active);
+                }
+            }
+        });
+        settleRow(active);
+        return active.hold;
+    }
+
+    // The sweep gave the hold back already; let it expire here too
+    private void settleRow(ActiveHold active) {
+        if (holdRepository.deleteHold(active.hold.id()) == 0) {
+            active.consumer.set(null);
+            expiry.execute(() -> expire(active.hold.id()));
+            throw new RuntimeException("Seat hold not found or expired");
+        }
+    }
+
+    /**
+     * Gives a hold taken by {@link #consume} back, for a booking that failed without its
+     * transaction rolling back; its row is written again in that transaction.
+     */
+    public void restore(String holdId) {
+        ActiveHold active = holds.get(holdId);
+        if (active != null) {
+            holdRepository.save(rowOf(active.hold));
+            restore(active);
+        }
+    }
+
+    public void release(String holdId, Long busId, String email) {
+        ActiveHold active = holds.get(holdId);
+        if (active == null || !active.hold.busId().equals(busId) || !active.hold.email().equals(email)
+                || !active.consumer.compareAndSet(null, RELEASED)) {
+            throw new RuntimeException("Seat hold not found or expired");
+        }
+        remove(active);
+        giveBack(active);
+        logger.info("Released hold {} on bus {}", holdId, busId);
+    }
+
+    private void booked(ActiveHold active) {
+        remove(active);
+        seatInventory.bookHold(active.hold.busId(), active.hold.seats(), active.hold.id());
+    }
+
+    private void remove(ActiveHold active) {
+        holds.remove(active.hold.id(), active);
+        HashedTimerWheel.Timeout timeout = active.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void restore(ActiveHold active) {
+        active.consumer.set(null);
+        // Its timer fired while a booking had it; expire off this thread, which may still be
+        // inside the finished transaction
+        if (Instant.now().isAfter(active.hold.expiresAt())) {
+            expiry.execute(() -> expire(active.hold.id()));
+        }
+    }
+
+    private void expire(String holdId) {
+        ActiveHold active = holds.get(holdId);
+        // A hold being booked is left to that booking: gone on commit, expired on rollback
+        if (active != null && active.consumer.compareAndSet(null, RELEASED) && holds.remove(holdId, active)) {
+            giveBack(active);
+            logger.info("Hold {} on bus {} expired, released seats {}", holdId, active.hold.busId(), active.hold.seats());
+        }
+    }
+
+    /**
+     * Returns the hold's count to the bus, unless the sweep did already, and frees its seats.
+     * Should the count update fail the seats are freed anyway and the row is left for the sweep.
+     */
+    private void giveBack(ActiveHold active) {
+        SeatHold hold = active.hold;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (holdRepository.deleteHold(hold.id()) == 1) {
+                    seatCounter.releaseSeats(hold.busId(), hold.seats().size());
+                }
+                seatInventory.releaseHold(hold.busId(), hold.seats(), hold.id());
+                busChanged(hold.busId());
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not give the seats of hold {} back to bus {}", hold.id(), hold.busId(), e);
+            seatInventory.releaseHold(hold.busId(), hold.seats(), hold.id());
+            eventPublisher.publishEvent(new SeatsReleasedEvent(hold.busId()));
+        }
+    }
+
+    /**
+     * Schedules the sweep of expired {@link Hold} rows, running it once right away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweeping() {
+        expiry.execute(this::sweep);
+    }
+
+    /**
+     * Gives back the count of every hold row well past its TTL: the holds of a node that died
+     * before it could give them back. Only whoever deletes a row returns its seats, so this never
+     * races a live node's own expiry or a booking.
+     */
+    void sweep() {
+        try {
+            for (Hold orphan : holdRepository.findByExpiresAtBefore(Instant.now().minusSeconds(SWEEP_GRACE_SECONDS))) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (holdRepository.deleteHold(orphan.getId()) == 1) {
+                        seatCounter.releaseSeats(orphan.getBusId(), orphan.getSeats());
+                        busChanged(orphan.getBusId());
+                        logger.info("Gave back {} seats of orphaned hold {} on bus {}", orphan.getSeats(), orphan.getId(), orphan.getBusId());
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            logger.error("Seat hold sweep failed", e);
+        } finally {
+            timerWheel.schedule(() -> expiry.execute(this::sweep), sweepSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Hold rowOf(SeatHold hold) {
+        Hold row = new Hold();
+        row.setId(hold.id());
+        row.setBusId(hold.busId());
+        row.setSeats(hold.seats().size());
+        row.setExpiresAt(hold.expiresAt());
+        return row;
+    }
+
+    private void busChanged(Long busId) {
+        busRepository.findById(busId).ifPresent(bus -> eventPublisher.publishEvent(new BusChangedEvent(bus)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timerWheel.close();
+        expiry.shutdown();
+        for (ActiveHold active : holds.values()) {
+            if (active.consumer.compareAndSet(null, RELEASED) && holds.remove(active.hold.id(), active)) {
+                giveBack(active);
+            }
+        }
+    }
+
+    public record SeatHold(String id, Long busId, List<String> seats, @JsonIgnore String email, Instant expiresAt) {
+    }
+
+    private static final class ActiveHold {
+        private final SeatHold hold;
+        // The booking that has taken the hold, or RELEASED; null while it is free
+        private final AtomicReference<Object> consumer = new AtomicReference<>();
+        private volatile HashedTimerWheel.Timeout timeout;
+
+        ActiveHold(SeatHold hold) {
+            this.hold = hold;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory seat occupancy per bus, kept as a bitmap so that conflict checks cost
+ * O(seats requested) instead of a scan over every booking of the bus.
+ * <p>
+ * A bus is loaded lazily from the {@code Passenger} table on first use and is then kept
+ * current by {@link #claim} and {@link #release}. Bitmaps live in a bounded cache and are dropped
+ * once a bus has not been touched for {@code booking.seats.inventory.idle-minutes}, so departed
+ * buses do not stay in memory. Every operation, including the load, runs under a lock striped by
+ * bus id, so a load never races a claim on the same bus.
+ * <p>
+ * Every {@code booking.seats.inventory.verify-minutes} the cached bitmaps are {@link #verify verified}
+ * against the {@code Passenger} table, and a bus that has drifted is rebuilt from it.
+ * <p>
+ * Held seats are kept apart from the bitmaps: they exist only in memory, so they must survive a
+ * bitmap being reloaded or evicted. A seat is taken when it is booked or held.
+ */
+@Component
+public class SeatInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventory.class);
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final PassengerRepository passengerRepository;
+    private final Cache<Long, BusSeats> buses;
+    // bus id -> seat number -> hold id; a bus is removed with its last hold
+    private final Map<Long, Map<String, String>> held = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // bus id -> difference from the database seen by the last verify of that bus
+    private final Map<Long, Set<String>> drifts = new ConcurrentHashMap<>();
+    private final long verifyMinutes;
+    private final ScheduledExecutorService verifier = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("seat-inventory-verify").daemon().factory());
+
+    public SeatInventory(PassengerRepository passengerRepository,
+                         @Value("${booking.seats.inventory.max-buses:10000}") long maxBuses,
+                         @Value("${booking.seats.inventory.idle-minutes:30}") long idleMinutes,
+                         @Value("${booking.seats.inventory.verify-minutes:10}") long verifyMinutes) {
+        this.passengerRepository = passengerRepository;
+        this.verifyMinutes = Math.max(1, verifyMinutes);
+        this.buses = Caffeine.newBuilder()
+                .maximumSize(maxBuses)
+                .expireAfterAccess(idleMinutes, TimeUnit.MINUTES)
+                .build();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Claims all of the given seats or none of them.
+     *
+     * @return the seats that are already taken; empty when the claim succeeded
+     */
+    public Set<String> claim(Long busId, Collection<String> seatNumbers) {
+        return withSeats(busId, seats -> {
+            Set<String> conflicts = heldAmong(busId, seatNumbers);
+            return conflicts.isEmpty() ? seats.claim(seatNumbers) : conflicts;
+        });
+    }
+
+    /**
+     * Holds all of the given seats for {@code holdId} or none of them.
+     *
+     * @return the seats that are already booked or held; empty when the hold was taken
+     */
+    public Set<String> hold(Long busId, Collection<String> seatNumbers, String holdId) {
+        return withSeats(busId, seats -> {
+            Set<String> conflicts = heldAmong(busId, seatNumbers);
+            for (String seatNumber : seatNumbers) {
+                if (seats.isOccupied(seatNumber)) {
+                    conflicts.add(seatNumber);
+                }
+            }
+            if (conflicts.isEmpty()) {
+                Map<String, String> busHolds = held.computeIfAbsent(busId, id -> new HashMap<>());
+                seatNumbers.forEach(seatNumber -> busHolds.put(seatNumber, holdId));
+            }
+            return conflicts;
+        });
+    }
+
+    /**
+     * Drops the hold; its seats are free again.
+     */
+    public void releaseHold(Long busId, Collection<String> seatNumbers, String holdId) {
+        withSeats(busId, seats -> {
+            dropHold(busId, seatNumbers, holdId);
+            return null;
+        });
+    }
+
+    /**
+     * Turns the hold's seats into booked seats, once the booking made from it has committed.
+     */
+    public void bookHold(Long busId, Collection<String> seatNumbers, String holdId) {
+        withSeats(busId, seats -> {
+            dropHold(busId, seatNumbers, holdId);
+            seats.claim(seatNumbers);
+            return null;
+        });
+    }
+
+    public void release(Long busId, Collection<String> seatNumbers) {
+        withSeats(busId, seats -> {
+            seats.release(seatNumbers);
+            return null;
+        });
+    }
+
+    public boolean isOccupied(Long busId, String seatNumber) {
+        return withSeats(busId, seats -> seats.isOccupied(seatNumber) || !heldAmong(busId, List.of(seatNumber)).isEmpty());
+    }
+
+    public Set<String> occupiedSeats(Long busId) {
+        return withSeats(busId, seats -> {
+            Set<String> occupied = seats.occupied();
+            Map<String, String> busHolds = held.get(busId);
+            if (busHolds != null) {
+                occupied.addAll(busHolds.keySet());
+            }
+            return occupied;
+        });
+    }
+
+    /**
+     * Drops the cached bitmap; the next access reloads it from the database.
+     */
+    public void invalidate(Long busId) {
+        ReentrantLock lock = lockFor(busId);
+        lock.lock();
+        try {
+            buses.invalidate(busId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the cached bitmap with a fresh one built from the {@code Passenger} table.
+     */
+    public void rebuild(Long busId) {
+        ReentrantLock lock = lockFor(busId);
+        lock.lock();
+        try {
+            buses.put(busId, load(busId));
+            drifts.remove(busId);
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Rebuilt seat inventory for bus {}", busId);
+    }
+
+    /**
+     * Compares the cached bitmap with the {@code Passenger} table. Claims of bookings still in
+     * flight are in the bitmap but not yet in the table, so a bus is only rebuilt once it shows
+     * the same difference on two verifies in a row.
+     *
+     * @return true when the cached state matched the database, or the bus is not cached
+     */
+    public boolean verify(Long busId) {
+        ReentrantLock lock = lockFor(busId);
+        lock.lock();
+        try {
+            BusSeats cached = buses.getIfPresent(busId);
+            if (cached == null) {
+                drifts.remove(busId);
+                return true;
+            }
+            Set<String> expected = load(busId).occupied();
+            Set<String> actual = cached.occupied();
+            Set<String> drift = new TreeSet<>(actual);
+            drift.addAll(expected);
+            drift.removeIf(seatNumber -> expected.contains(seatNumber) && actual.contains(seatNumber));
+            if (drift.isEmpty()) {
+                drifts.remove(busId);
+                return true;
+            }
+            if (drift.equals(drifts.put(busId, drift))) {
+                logger.warn("Seat inventory for bus {} drifted from database: cached={}, database={}", busId, actual, expected);
+                buses.put(busId, BusSeats.of(expected));
+                drifts.remove(busId);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startVerifying() {
+        verifier.scheduleWithFixedDelay(this::verifyAll, verifyMinutes, verifyMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        verifier.shutdownNow();
+    }
+
+    private void verifyAll() {
+        int drifted = 0;
+        for (Long busId : List.copyOf(buses.asMap().keySet())) {
+            try {
+                drifted += verify(busId) ? 0 : 1;
+            } catch (RuntimeException e) {
+                logger.error("Could not verify seat inventory for bus {}", busId, e);
+            }
+        }
+        drifts.keySet().retainAll(buses.asMap().keySet());
+        logger.debug("Verified seat inventory, {} buses differ from the database", drifted);
+    }
+
+    private <T> T withSeats(Long busId, Function<BusSeats, T> action) {
+        ReentrantLock lock = lockFor(busId);
+        lock.lock();
+        try {
+            BusSeats seats = buses.getIfPresent(busId);
+            if (seats == null) {
+                seats = load(busId);
+                buses.put(busId, seats);
+            }
+            return action.apply(seats);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Set<String> heldAmong(Long busId, Collection<String> seatNumbers) {
+        Set<String> taken = new LinkedHashSet<>();
+        Map<String, String> busHolds = held.get(busId);
+        if (busHolds != null) {
+            for (String seatNumber : seatNumbers) {
+                if (busHolds.containsKey(seatNumber)) {
+                    taken.add(seatNumber);
+                }
+            }
+        }
+        return taken;
+    }
+
+    private void dropHold(Long busId, Collection<String> seatNumbers, String holdId) {
+        Map<String, String> busHolds = held.get(busId);
+        if (busHolds == null) {
+            return;
+        }
+        seatNumbers.forEach(seatNumber -> busHolds.remove(seatNumber, holdId));
+        if (busHolds.isEmpty()) {
+            held.remove(busId);
+        }
+    }
+
+    private ReentrantLock lockFor(Long busId) {
+        return locks[Math.floorMod(busId.hashCode(), locks.length)];
+    }
+
+    private BusSeats load(Long busId) {
+        List<String> seatNumbers = passengerRepository.findSeatNumbersByBusId(busId);
+        logger.debug("Loaded {} occupied seats for bus {}", seatNumbers.size(), busId);
+        return BusSeats.of(seatNumbers);
+    }
+
+    /**
+     * Seat labels are free text ("A1", "12"), so each label is given a stable bit index the
+     * first time it is seen and occupancy is tracked in a growable {@code long[]}. Only touched
+     * under the bus's striped {@link ReentrantLock}, which unlike {@code synchronized} never pins
+     * a virtual thread.
+     */
+    private static final class BusSeats {
+
+        private final Map<String, Integer> index = new HashMap<>();
+        private String[] labels = new String[64];
+        private long[] bits = new long[1];
+
+        static BusSeats of(Collection<String> occupied) {
+            BusSeats seats = new BusSeats();
+            for (String seatNumber : occupied) {
+                if (seatNumber != null) {
+                    seats.set(seats.indexOf(seatNumber));
+                }
+            }
+            return seats;
+        }
+
+        Set<String> claim(Collection<String> seatNumbers) {
+            Set<String> conflicts = new LinkedHashSet<>();
+            int[] slots = new int[seatNumbers.size()];
+            int i = 0;
+            for (String seatNumber : seatNumbers) {
+                int slot = indexOf(seatNumber);
+                if (get(slot)) {
+                    conflicts.add(seatNumber);
+                }
+                slots[i++] = slot;
+            }
+            if (conflicts.isEmpty()) {
+                for (int slot : slots) {
+                    set(slot);
+                }
+            }
+            return conflicts;
+        }
+
+        void release(Collection<String> seatNumbers) {
+            for (String seatNumber : seatNumbers) {
+                Integer slot = index.get(seatNumber);
+                if (slot != null) {
+                    bits[slot >>> 6] &= ~(1L << slot);
+                }
+            }
+        }
+
+        boolean isOccupied(String seatNumber) {
+            Integer slot = index.get(seatNumber);
+            return slot != null && get(slot);
+        }
+
+        Set<String> occupied() {
+            Set<String> occupied = new LinkedHashSet<>();
+            for (int word = 0; word < bits.length; word++) {
+                long w = bits[word];
+                while (w != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(w);
+                    occupied.add(labels[slot]);
+                    w &= w - 1;
+                }
+            }
+            return occupied;
+        }
+
+        private int indexOf(String seatNumber) {
+            Integer slot = index.get(seatNumber);
+            if (slot != null) {
+                return slot;
+            }
+            int next = index.size();
+            if (next == labels.length) {
+                labels = Arrays.copyOf(labels, next * 2);
+            }
+            if ((next >>> 6) >= bits.length) {
+                bits = Arrays.copyOf(bits, bits.length * 2);
+            }
+            labels[next] = seatNumber;
+            index.put(seatNumber, next);
+            return next;
+        }
+
+        private boolean get(int slot) {
+            return (bits[slot >>> 6] & (1L << slot)) != 0;
+        }
+
+        private void set(int slot) {
+            bits[slot >>> 6] |= 1L << slot;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.busbooking.bus_booking_system.service;
+
+/**
+ * Published when seats go back to the {@link SeatInventory} without a committed bus change, such
+ * as the claims of a booking that rolled back. Seat streams may already have shown those seats
+ * as booked and must look again.
+ */
+public record SeatsReleasedEvent(Long busId) {
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sharded booking engine. Single bookings are routed by bus id to a fixed number of shards,
+ * each drained by one thread that commits them in micro-batches of up to
+ * {@code booking.engine.batch-size}, so single bookings for one bus never contend with each
+ * other. Batches, cancellations and seat holds still write directly; against those the
+ * conditional seat decrement and the seat unique constraint keep guarding the bus.
+ * <p>
+ * Enabled with {@code booking.engine.mode=sharded}.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.engine.mode", havingValue = "sharded")
+public class ShardedBookingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedBookingEngine.class);
+
+    private final UserRepository userRepository;
+    private final BusRepository busRepository;
+    private final SeatInventory seatInventory;
+    private final SeatCounter seatCounter;
+    private final BookingWriter bookingWriter;
+    private final BookingMetrics bookingMetrics;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Shard[] shards;
+
+    public ShardedBookingEngine(UserRepository userRepository, BusRepository busRepository,
+                                SeatInventory seatInventory, SeatCounter seatCounter, BookingWriter bookingWriter,
+                                BookingMetrics bookingMetrics,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                @Value("${booking.engine.shards:4}") int shardCount,
+                                @Value("${booking.engine.batch-size:32}") int batchSize,
+                                @Value("${booking.engine.queue-capacity:1024}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.busRepository = busRepository;
+        this.seatInventory = seatInventory;
+        this.seatCounter = seatCounter;
+        this.bookingWriter = bookingWriter;
+        this.bookingMetrics = bookingMetrics;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+            shards[i].start();
+        }
+        logger.info("Sharded booking engine started with {} shards, batch size {}", shards.length, this.batchSize);
+    }
+
+    /**
+     * Queues a validated booking request on the shard that owns its bus.
+     */
+    public CompletableFuture<Booking> submit(BookingRequest bookingRequest, List<String> requestedSeats, String email) {
+        PendingBooking pending = new PendingBooking(bookingRequest, requestedSeats, email);
+        Shard shard = shards[Math.floorMod(bookingRequest.getBusId().hashCode(), shards.length)];
+        if (!shard.queue.offer(pending)) {
+            logger.warn("Booking shard {} is full, rejecting booking for bus {}", shard.index, bookingRequest.getBusId());
+            pending.result.completeExceptionally(new BookingUnavailableException("Booking system is busy, please try again"));
+        }
+        return pending.result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.interrupt();
+        }
+        for (Shard shard : shards) {
+            PendingBooking pending;
+            while ((pending = shard.queue.poll()) != null) {
+                pending.result.completeExceptionally(new BookingUnavailableException("Booking system is shutting down"));
+            }
+        }
+    }
+
+    private void process(List<PendingBooking> batch) {
+        List<Accepted> accepted = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Optional<User>> users = new HashMap<>();
+                Map<Long, Optional<Bus>> buses = new HashMap<>();
+                for (PendingBooking pending : batch) {
+                    try {
+                        accepted.add(new Accepted(pending, book(pending, users, buses)));
+                    } catch (RuntimeException e) {
+                        pending.result.completeExceptionally(e);
+                    }
+                }
+                bookingWriter.flush();
+                // The buses were read before their seats were claimed; pick up the new counts and versions
+                accepted.stream().map(a -> a.booking.getBus()).distinct().forEach(bus -> {
+                    entityManager.refresh(bus);
+                    bookingWriter.busChanged(bus);
+                });
+            });
+        } catch (RuntimeException e) {
+            if (accepted.size() > 1) {
+                // Do not let one bad row sink the whole batch: replay the accepted requests one by one.
+                // The rollback gave their seats and holds back, so each replay starts clean
+                logger.warn("Booking batch of {} failed ({}), retrying individually", accepted.size(), e.getMessage());
+                for (Accepted a : accepted) {
+                    process(List.of(a.pending));
+                }
+            } else {
+                accepted.forEach(a -> a.pending.result.completeExceptionally(translate(a.pending, e)));
+            }
+            return;
+        }
+        accepted.forEach(a -> a.pending.result.complete(a.booking));
+    }
+
+    private Booking book(PendingBooking pending, Map<String, Optional<User>> users, Map<Long, Optional<Bus>> buses) {
+        Long busId = pending.request.getBusId();
+        User user = users.computeIfAbsent(pending.email, userRepository::findByEmail)
+                .orElseThrow(() -> {
+                    logger.error("User not found with email: {}", pending.email);
+                    return new RuntimeException("User not found");
+                });
+        Bus bus = buses.computeIfAbsent(busId, busRepository::findById)
+                .orElseThrow(() -> {
+                    logger.error("Bus not found: {}", busId);
+                    return new RuntimeException("Bus not found");
+                });
+
+        // A rejection here must leave nothing behind in the shared batch transaction, so the seat
+        // check and the count claim come before any row is written and undo each other. A hold
+        // took its count already
+        bookingWriter.reserveSeats(pending.request, pending.seats, pending.email);
+        boolean claimed;
+        try {
+            claimed = pending.request.getHoldId() != null || seatCounter.claimSeats(busId, pending.seats.size());
+        } catch (RuntimeException e) {
+            bookingWriter.unreserveSeats(pending.request, pending.seats);
+            throw e;
+        }
+        if (!claimed) {
+            bookingWriter.unreserveSeats(pending.request, pending.seats);
+            logger.warn("Not enough seats available for bus: {}", busId);
+            bookingMetrics.insufficientSeats();
+            throw new RuntimeException("Not enough seats available");
+        }
+        bookingWriter.releaseSeatsOnRollback(pending.request, pending.seats);
+
+        return bookingWriter.persist(user, bus, pending.request);
+    }
+
+    private RuntimeException translate(PendingBooking pending, RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            seatInventory.invalidate(pending.request.getBusId());
+            bookingMetrics.seatConflict();
+            return new RuntimeException("One or more of the seats " + String.join(", ", pending.seats) + " are already booked");
+        }
+        logger.error("Booking for bus {} failed: {}", pending.request.getBusId(), e.getMessage());
+        return new BookingUnavailableException("Booking could not be completed, please try again");
+    }
+
+    private final class Shard extends Thread {
+
+        private final int index;
+        private final BlockingQueue<PendingBooking> queue;
+
+        Shard(int index, int queueCapacity) {
+            super("booking-shard-" + index);
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<PendingBooking> batch = new ArrayList<>(batchSize);
+            while (!isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    process(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Booking shard {} failed to process batch", index, e);
+                    batch.forEach(p -> p.result.completeExceptionally(
+                            new BookingUnavailableException("Booking could not be completed, please try again")));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private static final class PendingBooking {
+        private final BookingRequest request;
+        private final List<String> seats;
+        private final String email;
+        private final CompletableFuture<Booking> result = new CompletableFuture<>();
+
+        PendingBooking(BookingRequest request, List<String> seats, String email) {
+            this.request = request;
+            this.seats = seats;
+            this.email = email;
+        }
+    }
+
+    private record Accepted(PendingBooking pending, Booking booking) {
+    }
+}
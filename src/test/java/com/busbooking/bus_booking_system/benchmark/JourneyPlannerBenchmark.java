@@ -0,0 +1,77 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.service.BusChangedEvent;
+import com.busbooking.bus_booking_system.service.JourneyPlanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Connection-scan journey queries over a synthetic week of trips between 200 cities, and the
+ * cost of splicing a new bus into the planner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class JourneyPlannerBenchmark {
+
+    private static final int CITIES = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Param({"10000", "100000"})
+    private int trips;
+
+    private JourneyPlanner planner;
+    private Random random;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        List<Bus> buses = new ArrayList<>(trips);
+        for (nextId = 1; nextId <= trips; nextId++) {
+            buses.add(randomBus());
+        }
+        BusRepository busRepository = mock(BusRepository.class);
+        when(busRepository.findAll()).thenReturn(buses);
+        planner = new JourneyPlanner(busRepository, 15, 3);
+        planner.rebuild();
+    }
+
+    @Benchmark
+    public List<JourneyPlanner.Journey> plan() {
+        return planner.plan("City" + random.nextInt(CITIES), "City" + random.nextInt(CITIES),
+                START.plusHours(random.nextInt(72)), 2);
+    }
+
+    @Benchmark
+    public void addBus() {
+        planner.onBusChanged(new BusChangedEvent(randomBus()));
+        nextId++;
+    }
+
+    private Bus randomBus() {
+        Bus bus = new Bus();
+        bus.setId(nextId);
+        int from = random.nextInt(CITIES);
+        bus.setFromLocation("City" + from);
+        bus.setToLocation("City" + (from + 1 + random.nextInt(CITIES - 1)) % CITIES);
+        LocalDateTime departure = START.plusMinutes(random.nextInt(7 * 24 * 60));
+        bus.setDepartureTime(departure);
+        bus.setArrivalTime(departure.plusMinutes(60 + random.nextInt(8 * 60)));
+        bus.setPrice(300);
+        bus.setAvailableSeats(random.nextInt(41));
+        return bus;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.security.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and the per-request authentication path, with and without the verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-32-bytes";
+
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 10_000);
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        user = new User();
+        user.setId(42L);
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        user.setRole("ROLE_USER");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtUtil.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    // Full parse and HMAC check on every call, as JwtUtil does on a cache miss
+    @Benchmark
+    public String parseAndVerifyUncached() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.controller.BookingHistoryResponse;
+import com.busbooking.bus_booking_system.controller.BusResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time per response encoding for a route search page and a booking history page.
+ * Payload sizes are printed once per fork, since JMH itself only reports time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"busPage", "historyPage"})
+    public String payload;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private Object document;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Built like ResponseEncodingConfig does, Blackbird included
+        json = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        cbor = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).factory(new CBORFactory()).build();
+        smile = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).factory(new SmileFactory()).build();
+        document = "busPage".equals(payload) ? busPage() : historyPage();
+
+        System.out.printf("%n%s bytes: json=%d json+gzip=%d cbor=%d cbor+gzip=%d smile=%d smile+gzip=%d%n", payload,
+                json().length, gzip(json()).length, cbor().length, gzip(cbor()).length, smile().length, gzip(smile()).length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(document);
+    }
+
+    // What a gzip-accepting client costs the server: serialization plus compression
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json.writeValueAsBytes(document));
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(document);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(document);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<BusResponse> busPage() {
+        LocalDateTime departure = LocalDateTime.of(2030, 1, 1, 8, 0);
+        List<BusResponse> buses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            buses.add(new BusResponse((long) i, "Chennai", "Bangalore", departure.plusMinutes(15L * i),
+                    departure.plusMinutes(15L * i + 360), 850 + i, 40 - i % 7));
+        }
+        return buses;
+    }
+
+    private static List<BookingHistoryResponse> historyPage() {
+        LocalDateTime departure = LocalDateTime.of(2030, 1, 1, 8, 0);
+        List<BookingHistoryResponse> history = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            history.add(new BookingHistoryResponse((long) i, departure.minusDays(i), "CONFIRMED",
+                    new BookingHistoryResponse.BusSummary((long) i, "Chennai", "Bangalore",
+                            departure.plusMinutes(15L * i), departure.plusMinutes(15L * i + 360), 850),
+                    List.of(new BookingHistoryResponse.PassengerSummary((long) i, "Passenger " + i, 30, "A1"),
+                            new BookingHistoryResponse.PassengerSummary((long) i + 1000, "Passenger " + i, 31, "A2"))));
+        }
+        return history;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.BusBookingSystemApplication;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.service.BusService;
+import com.busbooking.bus_booking_system.service.RouteIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route search against an embedded H2 database (PostgreSQL mode) holding a realistic timetable:
+ * the in-memory {@link RouteIndex} behind {@link BusService#findBuses} against repository queries, plain
+ * and filtered through {@code idx_bus_route_key_departure}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class RouteSearchBenchmark {
+
+    private static final int ROUTES = 200;
+
+    @Param({"10000"})
+    private int busCount;
+
+    private ConfigurableApplicationContext context;
+    private BusService busService;
+    private BusRepository busRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BusBookingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--jwt.secret=benchmark-secret-key-that-is-at-least-32-bytes",
+                        "--logging.level.root=WARN");
+        busService = context.getBean(BusService.class);
+        busRepository = context.getBean(BusRepository.class);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        List<Bus> buses = new ArrayList<>(1000);
+        for (int i = 0; i < busCount; i++) {
+            Bus bus = new Bus();
+            bus.setFromLocation("City" + (i % ROUTES));
+            bus.setToLocation("City" + ((i % ROUTES) + 1));
+            bus.setDepartureTime(start.plusMinutes(37L * i));
+            bus.setArrivalTime(start.plusMinutes(37L * i + 300));
+            bus.setPrice(500 + i % 700);
+            bus.setAvailableSeats(40);
+            buses.add(bus);
+            if (buses.size() == 1000) {
+                busRepository.saveAll(buses);
+                buses.clear();
+            }
+        }
+        busRepository.saveAll(buses);
+        context.getBean(RouteIndex.class).rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Bus> indexedSearch() {
+        int route = ThreadLocalRandom.current().nextInt(ROUTES);
+        return busService.findBuses("City" + route, "City" + (route + 1));
+    }
+
+    @Benchmark
+    public List<Bus> indexedWindowSearch() {
+        int route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 2, 0, 0);
+        return busService.findBuses("City" + route, "City" + (route + 1), from, from.plusDays(1));
+    }
+
+    @Benchmark
+    public List<Bus> indexedFilteredSearch() {
+        int route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 2, 0, 0);
+        return busService.findBuses(new BusService.BusSearch("City" + route, "City" + (route + 1), from, from.plusDays(30),
+                900.0, 2, BusService.parseSort("price")));
+    }
+
+    @Benchmark
+    public List<Bus> repositoryFilteredRangeScan() {
+        int route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 2, 0, 0);
+        return busRepository.findRouteDepartingBetween("city" + route, "city" + (route + 1), from, from.plusDays(30),
+                2, 900.0, Sort.by("price", "departureTime", "id"));
+    }
+
+    @Benchmark
+    public List<Bus> repositorySearch() {
+        int route = ThreadLocalRandom.current().nextInt(ROUTES);
+        return busRepository.findByFromLocationAndToLocation("City" + route, "City" + (route + 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Passenger;
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.service.SeatInventory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Seat-conflict check for one booking request: the original scan over every booking of the bus
+ * against the {@link SeatInventory} bitmap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class SeatConflictBenchmark {
+
+    private static final Long BUS_ID = 1L;
+
+    // Seats already sold on the bus, two passengers per booking
+    @Param({"10", "40", "500"})
+    private int occupiedSeats;
+
+    private List<Booking> existingBookings;
+    private SeatInventory seatInventory;
+    private List<String> freeSeats;
+    private List<String> conflictingSeats;
+
+    @Setup
+    public void setUp() {
+        List<String> occupied = new ArrayList<>();
+        existingBookings = new ArrayList<>();
+        for (int i = 0; i < occupiedSeats; i += 2) {
+            Booking booking = new Booking();
+            List<Passenger> passengers = new ArrayList<>();
+            for (int seat = i; seat < Math.min(i + 2, occupiedSeats); seat++) {
+                Passenger passenger = new Passenger();
+                passenger.setSeatNumber("S" + seat);
+                passenger.setBooking(booking);
+                passengers.add(passenger);
+                occupied.add("S" + seat);
+            }
+            booking.setPassengers(passengers);
+            existingBookings.add(booking);
+        }
+        freeSeats = List.of("S" + occupiedSeats, "S" + (occupiedSeats + 1));
+        conflictingSeats = List.of("S" + occupiedSeats, "S0");
+
+        PassengerRepository passengerRepository = mock(PassengerRepository.class);
+        when(passengerRepository.findSeatNumbersByBusId(BUS_ID)).thenReturn(occupied);
+        seatInventory = new SeatInventory(passengerRepository, 10_000, 30, 10);
+        seatInventory.occupiedSeats(BUS_ID); // load the bitmap outside the measurement
+    }
+
+    @Benchmark
+    public Set<String> baselineScanAllBookings() {
+        Set<String> requested = new HashSet<>(freeSeats);
+        Set<String> occupied = existingBookings.stream()
+                .flatMap(b -> b.getPassengers().stream())
+                .map(Passenger::getSeatNumber)
+                .collect(Collectors.toSet());
+        requested.retainAll(occupied);
+        return requested;
+    }
+
+    @Benchmark
+    public Set<String> inventoryClaimAndRelease() {
+        Set<String> conflicts = seatInventory.claim(BUS_ID, freeSeats);
+        seatInventory.release(BUS_ID, freeSeats);
+        return conflicts;
+    }
+
+    @Benchmark
+    public Set<String> inventoryConflict() {
+        return seatInventory.claim(BUS_ID, conflictingSeats);
+    }
+}
\ No newline at end of file
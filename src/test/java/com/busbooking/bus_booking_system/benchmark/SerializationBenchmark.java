@@ -0,0 +1,112 @@
+package com.busbooking.bus_booking_system.benchmark;
+
+import com.busbooking.bus_booking_system.controller.BookingHistoryResponse;
+import com.busbooking.bus_booking_system.controller.BookingResponse;
+import com.busbooking.bus_booking_system.controller.BusResponse;
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.Passenger;
+import com.busbooking.bus_booking_system.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the API responses, using an ObjectMapper configured the way Spring Boot does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Booking booking;
+    private List<Bus> busPage;
+    private List<BookingHistoryResponse> historyPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime departure = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+        busPage = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Bus bus = new Bus();
+            bus.setId((long) i);
+            bus.setFromLocation("Chennai");
+            bus.setToLocation("Bangalore");
+            bus.setDepartureTime(departure.plusMinutes(15L * i));
+            bus.setArrivalTime(departure.plusMinutes(15L * i + 360));
+            bus.setPrice(850);
+            bus.setAvailableSeats(40);
+            busPage.add(bus);
+        }
+
+        User user = new User();
+        user.setId(1L);
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuE2tz5ZbYoi5e0dE8M6Kv0qJzq3m7Xa");
+        user.setRole("ROLE_USER");
+        booking = new Booking();
+        booking.setId(7L);
+        booking.setUser(user);
+        booking.setBus(busPage.get(0));
+        booking.setBookingTime(departure.minusDays(3));
+        booking.setStatus("CONFIRMED");
+        List<Passenger> passengers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Passenger passenger = new Passenger();
+            passenger.setId((long) i);
+            passenger.setName("Passenger " + i);
+            passenger.setAge(30 + i);
+            passenger.setSeatNumber("A" + i);
+            passenger.setBooking(booking);
+            passengers.add(passenger);
+        }
+        booking.setPassengers(passengers);
+
+        historyPage = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Bus bus = busPage.get(i);
+            historyPage.add(new BookingHistoryResponse((long) i, departure.minusDays(i), "CONFIRMED",
+                    new BookingHistoryResponse.BusSummary(bus.getId(), bus.getFromLocation(), bus.getToLocation(),
+                            bus.getDepartureTime(), bus.getArrivalTime(), bus.getPrice()),
+                    List.of(new BookingHistoryResponse.PassengerSummary((long) i, "Passenger " + i, 30, "A1"),
+                            new BookingHistoryResponse.PassengerSummary((long) i + 1000, "Passenger " + i, 31, "A2"))));
+        }
+    }
+
+    @Benchmark
+    public byte[] bookingEntity() throws Exception {
+        return objectMapper.writeValueAsBytes(booking);
+    }
+
+    // What POST /api/bookings returns now: mapping included
+    @Benchmark
+    public byte[] bookingResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(BookingResponse.of(booking));
+    }
+
+    @Benchmark
+    public byte[] busPage() throws Exception {
+        return objectMapper.writeValueAsBytes(busPage);
+    }
+
+    @Benchmark
+    public byte[] busResponsePage() throws Exception {
+        return objectMapper.writeValueAsBytes(busPage.stream().map(BusResponse::of).toList());
+    }
+
+    @Benchmark
+    public byte[] bookingHistoryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(historyPage);
+    }
+}
\ No newline at end of file
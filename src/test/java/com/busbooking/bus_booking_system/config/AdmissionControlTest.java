@@ -0,0 +1,70 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.service.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "admission.rate-limit.enabled=true",
+        "admission.rate-limit.booking.capacity=2",
+        "admission.rate-limit.booking.refill-per-second=0.1",
+        "admission.booking.initial-limit=1",
+        "admission.booking.max-limit=1",
+        "admission.booking.max-queue=0"
+})
+@AutoConfigureMockMvc
+public class AdmissionControlTest {
+
+    private static final String BOOKING = "{\"busId\":1,\"passengers\":[{\"name\":\"Meena\",\"age\":40,\"seatNumber\":\"A1\"}]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter bookingLimiter;
+
+    @Test
+    @WithMockUser("eager@test.com")
+    public void testBookingsPastTheBurstAreThrottledWhileSearchesPass() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            int code = mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                    .andReturn().getResponse().getStatus();
+            assertNotEquals(429, code);
+        }
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        mockMvc.perform(get("/api/buses").param("from", "Pune").param("to", "Goa"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser("patient@test.com")
+    public void testSaturatedBookingIsShedWhileSearchesPass() throws Exception {
+        try (AdaptiveConcurrencyLimiter.Permit held = bookingLimiter.tryAcquire()) {
+            assertNotNull(held);
+            mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            mockMvc.perform(get("/api/buses").param("from", "Pune").param("to", "Goa"))
+                    .andExpect(status().isOk());
+        }
+        int code = mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(BOOKING))
+                .andReturn().getResponse().getStatus();
+        assertNotEquals(503, code);
+    }
+}
\ No newline at end of file
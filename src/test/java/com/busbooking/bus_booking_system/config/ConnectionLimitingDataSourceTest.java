@@ -0,0 +1,31 @@
+package com.busbooking.bus_booking_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    @Test
+    public void testBorrowBeyondPermitsTimesOutUntilConnectionIsClosed() throws Exception {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:limiting;DB_CLOSE_DELAY=-1", "sa", "");
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(h2, 1, 50);
+
+        Connection first = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        assertEquals(1, dataSource.availablePermits());
+
+        try (Connection second = dataSource.getConnection()) {
+            assertTrue(second.isValid(1));
+        }
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.Passenger;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BookingRepository;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRow;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database: the backfill runs over every passenger row
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:backfill;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+public class DataInitializerTest {
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Test
+    public void testBackfillKeepsTheEarliestBookingOfADuplicateSeat() {
+        User user = new User();
+        user.setName("Legacy User");
+        user.setEmail("legacy@test.com");
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+        Bus bus = new Bus();
+        bus.setFromLocation("Madurai");
+        bus.setToLocation("Trichy");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(1));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(3));
+        bus.setPrice(300);
+        bus.setAvailableSeats(37);
+        busRepository.save(bus);
+
+        // Stored before seat claims existed: the same seat sold twice, plus an ordinary booking
+        Long first = legacyBooking(user, bus, "A1");
+        Long second = legacyBooking(user, bus, "A1");
+        Long other = legacyBooking(user, bus, "B2");
+
+        dataInitializer.run();
+
+        assertEquals(List.of("A1"), passengerRepository.findClaimedSeatNumbersByBookingId(first));
+        assertEquals(List.of(), passengerRepository.findClaimedSeatNumbersByBookingId(second));
+        assertEquals(List.of("B2"), passengerRepository.findClaimedSeatNumbersByBookingId(other));
+        // Still reported on the next start, until somebody rebooks that passenger
+        assertEquals(List.of(second), passengerRepository.findDuplicateSeatsToBackfill().stream()
+                .map(PassengerRow::bookingId).toList());
+    }
+
+    private Long legacyBooking(User user, Bus bus, String seatNumber) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setBus(bus);
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setStatus("CONFIRMED");
+        Passenger passenger = new Passenger();
+        passenger.setName("Legacy " + seatNumber);
+        passenger.setAge(40);
+        passenger.setSeatNumber(seatNumber);
+        passenger.setBooking(booking);
+        booking.setPassengers(List.of(passenger));
+        return bookingRepository.save(booking).getId();
+    }
+}
\ No newline at end of file
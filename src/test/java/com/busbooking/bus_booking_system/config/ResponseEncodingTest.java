@@ -0,0 +1,115 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.controller.BusResponse;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.security.JwtUtil;
+import com.busbooking.bus_booking_system.service.BusService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Goes through the embedded server, since response compression happens in Tomcat.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.datasource.url=jdbc:h2:mem:encodings;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+public class ResponseEncodingTest {
+
+    private static final TypeReference<List<BusResponse>> BUS_LIST = new TypeReference<>() {
+    };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String token;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("encodings@test.com");
+        user.setRole("ROLE_USER");
+        token = jwtUtil.generateToken(user);
+        if (busService.findBuses("Nagpur", "Indore").isEmpty()) {
+            for (int i = 0; i < 30; i++) {
+                Bus bus = new Bus();
+                bus.setFromLocation("Nagpur");
+                bus.setToLocation("Indore");
+                bus.setDepartureTime(LocalDateTime.of(2031, 3, 1, 6, 0).plusMinutes(30L * i));
+                bus.setArrivalTime(LocalDateTime.of(2031, 3, 1, 15, 0).plusMinutes(30L * i));
+                bus.setPrice(700 + i);
+                bus.setAvailableSeats(36);
+                busService.saveBus(bus);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeJsonResponsesAreGzipped() throws Exception {
+        HttpResponse<byte[]> response = search("application/json", true);
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes();
+        assertTrue(response.body().length < json.length / 3, response.body().length + " vs " + json.length);
+        List<BusResponse> buses = Jackson2ObjectMapperBuilder.json().build().readValue(json, BUS_LIST);
+        assertEquals(30, buses.size());
+        assertEquals(LocalDateTime.of(2031, 3, 1, 6, 0), buses.get(0).departureTime());
+    }
+
+    @Test
+    public void testBinaryEncodingsCarryTheSameDocument() throws Exception {
+        String json = new String(search("application/json", false).body());
+        assertTrue(json.contains("\"departureTime\":\"2031-03-01T06:00:00\""), json);
+
+        HttpResponse<byte[]> cbor = search("application/cbor", false);
+        assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(cbor.headers().firstValue("ETag").orElseThrow().endsWith(".cbor\""));
+        List<BusResponse> fromCbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules().readValue(cbor.body(), BUS_LIST);
+
+        HttpResponse<byte[]> smile = search("application/x-jackson-smile", false);
+        assertEquals("application/x-jackson-smile", smile.headers().firstValue("Content-Type").orElse(null));
+        List<BusResponse> fromSmile = new ObjectMapper(new SmileFactory()).findAndRegisterModules().readValue(smile.body(), BUS_LIST);
+
+        List<BusResponse> fromJson = Jackson2ObjectMapperBuilder.json().build().readValue(json, BUS_LIST);
+        assertEquals(fromJson, fromCbor);
+        assertEquals(fromJson, fromSmile);
+        assertTrue(cbor.body().length < json.length());
+        assertTrue(smile.body().length < json.length());
+    }
+
+    private HttpResponse<byte[]> search(String accept, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/buses?from=Nagpur&to=Indore"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", accept);
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.busbooking.bus_booking_system.config;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.controller.UserUpdateRequest;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.service.BookingService;
+import com.busbooking.bus_booking_system.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that Bus and User reads are served from the second-level cache and that seat-count and
+ * profile updates evict exactly the entries they change.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "entity-cache.bus.max-size=100",
+        "entity-cache.user.max-size=100"
+})
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testSeatCountChangeEvictsOnlyThatBus() {
+        Long booked = newBus();
+        Long untouched = newBus();
+        newUser("cached@test.com");
+        busRepository.findById(booked);
+        busRepository.findById(untouched);
+        double hits = busCacheHits();
+
+        statistics.clear();
+        assertEquals(20, busRepository.findById(booked).orElseThrow().getAvailableSeats());
+        assertEquals(20, busRepository.findById(untouched).orElseThrow().getAvailableSeats());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(hits + 2, busCacheHits());
+
+        bookingService.createBooking(request(booked, "A1"), "cached@test.com");
+        statistics.clear();
+        assertEquals(20, busRepository.findById(untouched).orElseThrow().getAvailableSeats());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(19, busRepository.findById(booked).orElseThrow().getAvailableSeats());
+
+        // A failed claim rolls back, and the count cached during it must not outlive the transaction
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking(request(booked, "A1"), "cached@test.com"));
+        assertEquals(19, busRepository.findById(booked).orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    public void testEmailChangeMovesTheCachedLookup() {
+        newUser("before@test.com");
+        newUser("bystander@test.com");
+        userRepository.findByEmail("before@test.com");
+        userRepository.findByEmail("bystander@test.com");
+
+        statistics.clear();
+        assertTrue(userRepository.findByEmail("before@test.com").isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        UserUpdateRequest update = new UserUpdateRequest();
+        update.setEmail("after@test.com");
+        update.setName("Renamed");
+        userService.updateProfile("before@test.com", update);
+
+        assertTrue(userRepository.findByEmail("before@test.com").isEmpty());
+        assertEquals("Renamed", userRepository.findByEmail("after@test.com").orElseThrow().getName());
+        statistics.clear();
+        assertTrue(userRepository.findByEmail("bystander@test.com").isPresent());
+        assertEquals("Renamed", userRepository.findByEmail("after@test.com").orElseThrow().getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private double busCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", SecondLevelCacheConfig.BUS_REGION).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private Long newBus() {
+        Bus bus = new Bus();
+        bus.setFromLocation("Madurai");
+        bus.setToLocation("Trichy");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(2));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(2).plusHours(3));
+        bus.setPrice(250);
+        bus.setAvailableSeats(20);
+        return busRepository.save(bus).getId();
+    }
+
+    private void newUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+    }
+
+    private BookingRequest request(Long busId, String seatNumber) {
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setName("Passenger " + seatNumber);
+        passenger.setAge(40);
+        passenger.setSeatNumber(seatNumber);
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(List.of(passenger));
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.service.BookingOutcomeUnknownException;
+import com.busbooking.bus_booking_system.service.BookingService;
+import com.busbooking.bus_booking_system.service.BookingUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser("views@test.com")
+public class BookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @SpyBean
+    private BookingService bookingService;
+
+    private Long busId;
+
+    @BeforeEach
+    public void setUp() {
+        if (userRepository.findByEmail("views@test.com").isEmpty()) {
+            User user = new User();
+            user.setName("Views User");
+            user.setEmail("views@test.com");
+            user.setPassword("$2a$04$secrethash");
+            user.setRole("ROLE_USER");
+            userRepository.save(user);
+        }
+        Bus bus = new Bus();
+        bus.setFromLocation("Kochi");
+        bus.setToLocation("Munnar");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(2));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(2).plusHours(4));
+        bus.setPrice(420);
+        bus.setAvailableSeats(12);
+        busId = busRepository.save(bus).getId();
+    }
+
+    @Test
+    public void testBookingResponseCarriesNoUserOrBackReferences() throws Exception {
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"busId\":" + busId + ",\"passengers\":[{\"name\":\"Asha\",\"age\":29,\"seatNumber\":\"C3\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.bus.fromLocation").value("Kochi"))
+                .andExpect(jsonPath("$.bus.availableSeats").value(11))
+                .andExpect(jsonPath("$.bus.version").doesNotExist())
+                .andExpect(jsonPath("$.passengers[0].seatNumber").value("C3"))
+                .andExpect(jsonPath("$.passengers[0].booking").doesNotExist())
+                .andExpect(jsonPath("$.user").doesNotExist());
+    }
+
+    @Test
+    public void testRetryWithIdempotencyKeyReplaysTheOriginalBooking() throws Exception {
+        String body = "{\"busId\":" + busId + ",\"passengers\":[{\"name\":\"Ravi\",\"age\":34,\"seatNumber\":\"D4\"}]}";
+        String first = mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-" + busId).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        String retry = mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-" + busId).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, retry);
+        assertEquals(11, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "retry-" + busId).content(body.replace("D4", "D5")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testRetryAfterTransientFailureBooksForReal() throws Exception {
+        String body = "{\"busId\":" + busId + ",\"passengers\":[{\"name\":\"Meera\",\"age\":41,\"seatNumber\":\"E2\"}]}";
+        doThrow(new BookingUnavailableException("Booking could not be completed due to high demand, please try again"))
+                .doCallRealMethod()
+                .when(bookingService).createBooking(any(), anyString());
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "transient-" + busId).content(body))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "transient-" + busId).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.passengers[0].seatNumber").value("E2"));
+        assertEquals(11, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    public void testRetryWhileOutcomeUnknownReplaysTheLateBooking() throws Exception {
+        String body = "{\"busId\":" + busId + ",\"passengers\":[{\"name\":\"Tara\",\"age\":25,\"seatNumber\":\"F6\"}]}";
+        CompletableFuture<Booking> outcome = new CompletableFuture<>();
+        doThrow(new BookingOutcomeUnknownException("Booking is taking longer than expected, please check your booking history", outcome))
+                .doCallRealMethod()
+                .when(bookingService).createBooking(any(), anyString());
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "unknown-" + busId).content(body))
+                .andExpect(status().isServiceUnavailable());
+
+        // The booking the first attempt started commits after its caller stopped waiting
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setName("Tara");
+        passenger.setAge(25);
+        passenger.setSeatNumber("F6");
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(List.of(passenger));
+        outcome.complete(bookingService.createBooking(request, "views@test.com"));
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "unknown-" + busId).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.passengers[0].seatNumber").value("F6"));
+        assertEquals(11, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    public void testProfileHidesPasswordAndAccountFlags() throws Exception {
+        mockMvc.perform(get("/api/users/profile"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("views@test.com"))
+                .andExpect(jsonPath("$.name").value("Views User"))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.authorities").doesNotExist());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.busbooking.bus_booking_system.controller;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.service.BookingService;
+import com.busbooking.bus_booking_system.service.BusChangedEvent;
+import com.busbooking.bus_booking_system.service.BusService;
+import com.busbooking.bus_booking_system.service.RouteIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own database: the Statistics counts below must not see another test context's schema resets
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-get;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@WithMockUser("etag@test.com")
+public class BusControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RouteIndex routeIndex;
+
+    @Test
+    public void testUnchangedBusIsNotModifiedWithoutQueries() throws Exception {
+        Long busId = busService.saveBus(bus("Salem", "Erode", 1)).getId();
+        String etag = mockMvc.perform(get("/api/buses/" + busId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSeats").value(20))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", etag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/buses/" + busId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+
+        // Seat count updates bump the entity version and so change the tag
+        bookingService.createBooking(booking(busId), user().getEmail());
+        String changed = mockMvc.perform(get("/api/buses/" + busId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSeats").value(19))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"1\"", changed);
+    }
+
+    @Test
+    public void testBusTagFollowsTheNewestOfOutOfOrderUpdates() throws Exception {
+        Bus saved = busService.saveBus(bus("Karur", "Namakkal", 1));
+        Long busId = saved.getId();
+        bookingService.createBooking(booking(busId), user().getEmail());
+        Bus older = bus("Karur", "Namakkal", 1);
+        older.setId(busId);
+        older.setDepartureTime(saved.getDepartureTime());
+        older.setArrivalTime(saved.getArrivalTime());
+        older.setAvailableSeats(20);
+        older.setVersion(0);
+
+        // The change from before the booking is delivered last and must not win
+        routeIndex.onBusChanged(new BusChangedEvent(older));
+        mockMvc.perform(get("/api/buses/" + busId).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/buses/" + busId).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSeats").value(19))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        assertEquals(19, routeIndex.find("Karur", "Namakkal", null, null).get(0).getAvailableSeats());
+    }
+
+    @Test
+    public void testRouteSearchIsNotModifiedUntilTheRouteChanges() throws Exception {
+        busService.saveBus(bus("Vellore", "Hosur", 1));
+        String etag = mockMvc.perform(get("/api/buses").param("from", "Vellore").param("to", "Hosur"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/buses").param("from", "vellore").param("to", "hosur").param("sort", "price")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        busService.saveBus(bus("Salem", "Erode", 2));
+        mockMvc.perform(get("/api/buses").param("from", "Vellore").param("to", "Hosur")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        busService.saveBus(bus("Vellore", "Hosur", 2));
+        mockMvc.perform(get("/api/buses").param("from", "Vellore").param("to", "Hosur")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    public void testFiltersWithoutARouteAreRejected() throws Exception {
+        mockMvc.perform(get("/api/buses").param("maxPrice", "500"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/buses").param("from", "Vellore").param("sort", "price"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/buses").param("limit", "5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testJourneyLegsAreBusResponses() throws Exception {
+        busService.saveBus(bus("Trichy", "Karaikudi", 1));
+        mockMvc.perform(get("/api/buses/journeys").param("from", "Trichy").param("to", "Karaikudi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].transfers").value(0))
+                .andExpect(jsonPath("$[0].legs[0].fromLocation").value("Trichy"))
+                .andExpect(jsonPath("$[0].legs[0].availableSeats").value(20))
+                .andExpect(jsonPath("$[0].legs[0].version").doesNotExist());
+    }
+
+    @Test
+    public void testOnlyTheTimetableStreamGetsTheLongAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/buses/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(600000, result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private User user() {
+        return userRepository.findByEmail("etag@test.com").orElseGet(() -> {
+            User user = new User();
+            user.setName("ETag User");
+            user.setEmail("etag@test.com");
+            user.setPassword("secret");
+            user.setRole("ROLE_USER");
+            return userRepository.save(user);
+        });
+    }
+
+    private static Bus bus(String from, String to, int daysAhead) {
+        Bus bus = new Bus();
+        bus.setFromLocation(from);
+        bus.setToLocation(to);
+        bus.setDepartureTime(LocalDateTime.now().plusDays(daysAhead));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(daysAhead).plusHours(2));
+        bus.setPrice(180);
+        bus.setAvailableSeats(20);
+        return bus;
+    }
+
+    private static BookingRequest booking(Long busId) {
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setName("Passenger");
+        passenger.setAge(35);
+        passenger.setSeatNumber("B1");
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(List.of(passenger));
+        return request;
+    }
+}
\ No newline at end of file
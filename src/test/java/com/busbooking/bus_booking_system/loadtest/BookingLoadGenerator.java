@@ -0,0 +1,314 @@
+package com.busbooking.bus_booking_system.loadtest;
+
+import com.busbooking.bus_booking_system.BusBookingSystemApplication;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.security.JwtUtil;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-model load generator for {@code POST /api/bookings}. A fixed number of client threads book
+ * random seats, mostly on a few hot buses and otherwise on a long tail of cold ones, and latencies
+ * go into an HdrHistogram. A share of the requests can be route searches instead. Afterwards the
+ * database is checked for oversold seats and for buses whose {@code availableSeats} no longer
+ * matches their passenger rows.
+ * <p>
+ * Standalone: {@code mvn -Pload-test -DskipTests verify -Dload.args="--threads=32 --requests=20000"}
+ * boots the application against embedded H2 in PostgreSQL mode and prints the report. Run it once
+ * with {@code --virtual-threads=false} and once with {@code --virtual-threads=true} to compare
+ * the serving modes.
+ */
+public class BookingLoadGenerator {
+
+    private static final String EMAIL_FORMAT = "load-%d@test.com";
+
+    private final ApplicationContext context;
+    private final String baseUrl;
+    private final Config config;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public BookingLoadGenerator(ApplicationContext context, String baseUrl, Config config) {
+        this.context = context;
+        this.baseUrl = baseUrl;
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        Config config = Config.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BusBookingSystemApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--jwt.secret=load-test-secret-key-that-is-at-least-32-bytes",
+                        "--booking.engine.mode=" + config.engine,
+                        "--spring.threads.virtual.enabled=" + config.virtualThreads,
+                        // Measures the booking path, not how fast a few users hit their per-user limits
+                        "--admission.rate-limit.enabled=false",
+                        "--logging.level.root=WARN")) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            Report report = new BookingLoadGenerator(context, "http://localhost:" + port, config).run();
+            System.out.println(report);
+            if (!report.consistent()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    public Report run() {
+        List<String> tokens = createUsers();
+        List<Long> hotBuses = createBuses(config.hotBuses);
+        List<Long> coldBuses = createBuses(config.coldBuses);
+
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        Histogram searchLatencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        LongAdder booked = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder busy = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(config.requests);
+
+        ExecutorService clients = Executors.newFixedThreadPool(config.threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < config.threads; t++) {
+            clients.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    if (random.nextDouble() < config.searchShare) {
+                        long sent = System.nanoTime();
+                        if (search(tokens.get(random.nextInt(tokens.size()))) != 200) {
+                            failed.increment();
+                        }
+                        searchLatencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                        continue;
+                    }
+                    List<Long> pool = random.nextDouble() < config.hotShare || coldBuses.isEmpty() ? hotBuses : coldBuses;
+                    Long busId = pool.get(random.nextInt(pool.size()));
+                    String token = tokens.get(random.nextInt(tokens.size()));
+                    long sent = System.nanoTime();
+                    int status = book(token, busId, 1 + random.nextInt(config.maxPassengers), random);
+                    latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                    if (status == 200) {
+                        booked.increment();
+                    } else if (status == 400) {
+                        rejected.increment();
+                    } else if (status == 503 || status == 429) {
+                        busy.increment();
+                    } else {
+                        failed.increment();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        try {
+            if (!clients.awaitTermination(30, TimeUnit.MINUTES)) {
+                clients.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            clients.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> buses = new ArrayList<>(hotBuses);
+        buses.addAll(coldBuses);
+        return verify(buses, latencies, searchLatencies, booked.sum(), rejected.sum(), busy.sum(), failed.sum(), elapsedSeconds);
+    }
+
+    private int book(String token, Long busId, int passengers, ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder("{\"busId\":").append(busId).append(",\"passengers\":[");
+        int firstSeat = 1 + random.nextInt(config.seatsPerBus - passengers + 1);
+        for (int i = 0; i < passengers; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"name\":\"Load Passenger\",\"age\":30,\"seatNumber\":\"S").append(firstSeat + i).append("\"}");
+        }
+        body.append("]}");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/bookings"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private int search(String token) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/buses?from=LoadFrom&to=LoadTo"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private List<String> createUsers() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        List<String> tokens = new ArrayList<>(config.users);
+        for (int i = 0; i < config.users; i++) {
+            String email = String.format(EMAIL_FORMAT, i);
+            User user = userRepository.findByEmail(email).orElseGet(() -> {
+                User created = new User();
+                created.setName("Load User " + email);
+                created.setEmail(email);
+                created.setPassword("not-used-for-token-auth");
+                created.setRole("ROLE_USER");
+                return userRepository.save(created);
+            });
+            tokens.add(jwtUtil.generateToken(user));
+        }
+        return tokens;
+    }
+
+    private List<Long> createBuses(int count) {
+        BusRepository busRepository = context.getBean(BusRepository.class);
+        LocalDateTime departure = LocalDateTime.now().plusDays(7);
+        List<Bus> buses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Bus bus = new Bus();
+            bus.setFromLocation("LoadFrom");
+            bus.setToLocation("LoadTo");
+            bus.setDepartureTime(departure.plusMinutes(i));
+            bus.setArrivalTime(departure.plusMinutes(i + 240L));
+            bus.setPrice(500);
+            bus.setAvailableSeats(config.seatsPerBus);
+            buses.add(bus);
+        }
+        return busRepository.saveAll(buses).stream().map(Bus::getId).toList();
+    }
+
+    private Report verify(List<Long> busIds, Histogram latencies, Histogram searchLatencies, long booked, long rejected, long busy, long failed,
+                          double elapsedSeconds) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long doubleSold = jdbcTemplate.queryForObject(
+                "select count(*) from (select bus_id, seat_number from passenger where bus_id is not null " +
+                        "group by bus_id, seat_number having count(*) > 1) duplicates", Long.class);
+
+        Map<Long, Integer> sold = new HashMap<>();
+        jdbcTemplate.query("select bus_id, count(*) from passenger where bus_id is not null group by bus_id",
+                rs -> {
+                    sold.put(rs.getLong(1), rs.getInt(2));
+                });
+        List<String> mismatches = new ArrayList<>();
+        for (Bus bus : context.getBean(BusRepository.class).findAllById(busIds)) {
+            int passengers = sold.getOrDefault(bus.getId(), 0);
+            if (bus.getAvailableSeats() != config.seatsPerBus - passengers || bus.getAvailableSeats() < 0) {
+                mismatches.add("bus " + bus.getId() + ": availableSeats=" + bus.getAvailableSeats()
+                        + ", passengers=" + passengers + ", capacity=" + config.seatsPerBus);
+            }
+        }
+        return new Report(config, latencies, searchLatencies, booked, rejected, busy, failed, elapsedSeconds,
+                doubleSold == null ? 0 : doubleSold, mismatches);
+    }
+
+    public record Config(int threads, int requests, int users, int hotBuses, int coldBuses, double hotShare,
+                         int seatsPerBus, int maxPassengers, String engine, double searchShare, boolean virtualThreads) {
+
+        public static Config defaults() {
+            return new Config(32, 10_000, 100, 3, 200, 0.8, 40, 2, "direct", 0.0, false);
+        }
+
+        public static Config parse(String[] args) {
+            Map<String, String> options = new HashMap<>();
+            for (String arg : args) {
+                if (arg.startsWith("--") && arg.contains("=")) {
+                    options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+                }
+            }
+            Config d = defaults();
+            return new Config(
+                    Integer.parseInt(options.getOrDefault("threads", String.valueOf(d.threads))),
+                    Integer.parseInt(options.getOrDefault("requests", String.valueOf(d.requests))),
+                    Integer.parseInt(options.getOrDefault("users", String.valueOf(d.users))),
+                    Integer.parseInt(options.getOrDefault("hot-buses", String.valueOf(d.hotBuses))),
+                    Integer.parseInt(options.getOrDefault("cold-buses", String.valueOf(d.coldBuses))),
+                    Double.parseDouble(options.getOrDefault("hot-share", String.valueOf(d.hotShare))),
+                    Integer.parseInt(options.getOrDefault("seats", String.valueOf(d.seatsPerBus))),
+                    Integer.parseInt(options.getOrDefault("max-passengers", String.valueOf(d.maxPassengers))),
+                    options.getOrDefault("engine", d.engine),
+                    Double.parseDouble(options.getOrDefault("search-share", String.valueOf(d.searchShare))),
+                    Boolean.parseBoolean(options.getOrDefault("virtual-threads", String.valueOf(d.virtualThreads))));
+        }
+    }
+
+    public record Report(Config config, Histogram latencies, Histogram searchLatencies, long booked, long rejected, long busy, long failed,
+                         double elapsedSeconds, long doubleSoldSeats, List<String> seatCountMismatches) {
+
+        public boolean consistent() {
+            return doubleSoldSeats == 0 && seatCountMismatches.isEmpty();
+        }
+
+        public long requests() {
+            return booked + rejected + busy + searchLatencies.getTotalCount();
+        }
+
+        public double throughput() {
+            return requests() / elapsedSeconds;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%n=== Booking load test (%s engine, %s threads, %d clients, %d hot + %d cold buses x %d seats) ===%n",
+                    config.engine, config.virtualThreads ? "virtual" : "platform", config.threads,
+                    config.hotBuses, config.coldBuses, config.seatsPerBus));
+            out.append(String.format("requests %d in %.2f s -> %.1f req/s, %.1f bookings/s%n",
+                    requests(), elapsedSeconds, throughput(), booked / elapsedSeconds));
+            out.append(String.format("booked %d, rejected %d, busy (503/429) %d, searches %d, failed %d%n",
+                    booked, rejected, busy, searchLatencies.getTotalCount(), failed));
+            out.append(percentiles("booking", latencies));
+            if (searchLatencies.getTotalCount() > 0) {
+                out.append(percentiles("search ", searchLatencies));
+            }
+            out.append(String.format("double-sold seats: %d, seat count mismatches: %d%n", doubleSoldSeats, seatCountMismatches.size()));
+            seatCountMismatches.forEach(m -> out.append("  ").append(m).append(System.lineSeparator()));
+            out.append(consistent() ? "RESULT: consistent" : "RESULT: INCONSISTENT");
+            return out.toString();
+        }
+
+        private static String percentiles(String label, Histogram histogram) {
+            return String.format("%s latency ms  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n", label,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.busbooking.bus_booking_system.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Small run of the load generator so the harness and the oversell checks stay working.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BookingLoadGeneratorTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    public void testConcurrentBookingsNeverOversell() {
+        BookingLoadGenerator.Config config = new BookingLoadGenerator.Config(8, 300, 10, 2, 20, 0.8, 20, 2, "direct", 0.2, false);
+        BookingLoadGenerator.Report report = new BookingLoadGenerator(context, "http://localhost:" + port, config).run();
+
+        assertEquals(300, report.requests() + report.failed(), report.toString());
+        assertEquals(0, report.failed(), report.toString());
+        assertTrue(report.booked() > 0, report.toString());
+        assertTrue(report.rejected() > 0, report.toString()); // the hot buses sell out
+        assertTrue(report.consistent(), report.toString());
+    }
+}
\ No newline at end of file
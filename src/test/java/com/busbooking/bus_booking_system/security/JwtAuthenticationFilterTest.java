@@ -0,0 +1,57 @@
+package com.busbooking.bus_booking_system.security;
+
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    public void testTokenClaimsAuthenticateWithoutUserLookup() throws Exception {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("claims@test.com");
+        user.setRole("ROLE_USER");
+        String token = jwtUtil.generateToken(user);
+
+        JwtPrincipal principal = jwtUtil.verify(token);
+        assertEquals(42L, principal.userId());
+        assertEquals("claims@test.com", principal.getName());
+        assertEquals("ROLE_USER", principal.role());
+        assertSame(principal, jwtUtil.verify(token));
+
+        clearInvocations(userRepository);
+        mockMvc.perform(get("/api/buses").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        verifyNoInteractions(userRepository);
+
+        mockMvc.perform(get("/api/buses").header("Authorization", "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token.substring(0, token.length() - 2)));
+    }
+}
\ No newline at end of file
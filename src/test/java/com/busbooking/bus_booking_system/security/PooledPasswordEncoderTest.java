@@ -0,0 +1,53 @@
+package com.busbooking.bus_booking_system.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledPasswordEncoderTest {
+
+    @Test
+    public void testSaturatedPoolRejectsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+        };
+
+        try (PooledPasswordEncoder encoder = new PooledPasswordEncoder(slow, 1, 1, 5000)) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            while (encoder.queuedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("c"));
+            assertEquals(1, encoder.rejectedCount());
+
+            release.countDown();
+            assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+            assertTrue(encoder.matches("c", "hashed:c"));
+        }
+    }
+
+}
\ No newline at end of file
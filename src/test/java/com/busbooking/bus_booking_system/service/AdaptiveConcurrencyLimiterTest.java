@@ -0,0 +1,66 @@
+package com.busbooking.bus_booking_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testQueuedRequestGetsTheFreedSlotAndOverflowIsShed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 1000, 1, 5000);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        assertNotNull(first);
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (limiter.queued() == 0) {
+            Thread.onSpinWait();
+        }
+        assertNull(limiter.tryAcquire()); // the queue holds one
+        assertEquals(1, limiter.shedCount());
+
+        first.close();
+        AdaptiveConcurrencyLimiter.Permit second = waiting.get(5, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertEquals(1, limiter.inFlight());
+        second.close();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testQueueWaitIsBounded() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 1000, 10, 20);
+        try (AdaptiveConcurrencyLimiter.Permit held = limiter.tryAcquire()) {
+            assertNotNull(held);
+            long start = System.nanoTime();
+            assertNull(limiter.tryAcquire());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        }
+    }
+
+    @Test
+    public void testLimitShrinksOnSlowRequestsAndGrowsWhenFastOnesFillIt() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 20, 5, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            try (AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire()) {
+                assertNotNull(permit);
+                Thread.sleep(10);
+            }
+        }
+        double shrunk = limiter.limit();
+        assertTrue(shrunk < 10, "limit " + shrunk);
+
+        AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[(int) shrunk];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.tryAcquire();
+        }
+        assertNull(limiter.tryAcquire());
+        for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+            permit.close();
+        }
+        assertTrue(limiter.limit() > shrunk, "limit " + limiter.limit());
+    }
+}
\ No newline at end of file
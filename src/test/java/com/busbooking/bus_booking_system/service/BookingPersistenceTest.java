@@ -0,0 +1,201 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingHistoryResponse;
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs bookings against the embedded database and counts the JDBC statements Hibernate prepares.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingPersistenceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.findByEmail("batch@test.com").isEmpty()) {
+            User user = new User();
+            user.setName("Batch User");
+            user.setEmail("batch@test.com");
+            user.setPassword("secret");
+            user.setRole("ROLE_USER");
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    public void testSixPassengerBookingUsesBatchedInserts() {
+        Long busId = newBus(40);
+        // Warm the seat map and the id sequences so that only steady-state work is counted;
+        // a pooled sequence starting at 1 hands out its first full block on the second call
+        bookingService.createBooking(request(busId, 1, 1), "batch@test.com");
+        bookingService.createBooking(request(busId, 2, 1), "batch@test.com");
+
+        statistics.clear();
+        Booking booking = bookingService.createBooking(request(busId, 3, 6), "batch@test.com");
+
+        assertEquals(6, booking.getPassengers().size());
+        assertEquals(7, statistics.getEntityInsertCount()); // 1 booking + 6 passengers
+        // conditional decrement, select bus, insert booking, one batched passenger insert; the user comes from the cache
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(8, passengerRepository.findSeatNumbersByBusId(busId).size());
+        assertEquals(32, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    public void testHistoryQueryCountDoesNotGrowWithBookings() {
+        User user = new User();
+        user.setName("History User");
+        user.setEmail("history@test.com");
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+        Long busId = newBus(40);
+        for (int i = 0; i < 2; i++) {
+            bookingService.createBooking(request(busId, 10 + i * 2, 2), "history@test.com");
+        }
+
+        statistics.clear();
+        assertEquals(2, bookingService.getBookingHistory("history@test.com", null, 50).bookings().size());
+        long fewBookings = statistics.getPrepareStatementCount();
+
+        for (int i = 2; i < 7; i++) {
+            bookingService.createBooking(request(busId, 10 + i * 2, 2), "history@test.com");
+        }
+        statistics.clear();
+        List<BookingHistoryResponse> all = bookingService.getBookingHistory("history@test.com", null, 50).bookings();
+        assertEquals(7, all.size());
+        assertEquals(fewBookings, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getPrepareStatementCount()); // bookings with bus, passengers of the page
+        assertTrue(all.stream().allMatch(b -> b.passengers().size() == 2 && "Chennai".equals(b.bus().fromLocation())));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingService.HistoryPage page = bookingService.getBookingHistory("history@test.com", cursor, 3);
+            page.bookings().forEach(b -> paged.add(b.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(all.stream().map(BookingHistoryResponse::id).toList(), paged);
+    }
+
+    @Test
+    public void testBatchAcrossBusesIsAllOrNothing() {
+        Long outbound = newBus(10);
+        Long inbound = newBus(10);
+        // Warm both seat maps and the id sequences, as above
+        bookingService.createBooking(request(inbound, 9, 1), "batch@test.com");
+        bookingService.createBooking(request(outbound, 10, 1), "batch@test.com");
+
+        statistics.clear();
+        List<Booking> bookings = bookingService.createBookings(
+                List.of(request(inbound, 1, 3), request(outbound, 1, 2), request(outbound, 3, 1)), "batch@test.com");
+        assertEquals(3, bookings.size());
+        assertEquals(9, statistics.getEntityInsertCount()); // 3 bookings + 6 passengers
+        // two conditional decrements, one select of both buses, batched booking and passenger inserts
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(6, busRepository.findById(outbound).orElseThrow().getAvailableSeats());
+        assertEquals(6, busRepository.findById(inbound).orElseThrow().getAvailableSeats());
+
+        // S9 on the inbound bus is taken, so the outbound group must not be sold either
+        RuntimeException e = assertThrows(RuntimeException.class, () -> bookingService.createBookings(
+                List.of(request(outbound, 5, 2), request(inbound, 8, 2)), "batch@test.com"));
+        assertTrue(e.getMessage().contains("S9"), e.getMessage());
+        assertEquals(6, busRepository.findById(outbound).orElseThrow().getAvailableSeats());
+        assertEquals(6, busRepository.findById(inbound).orElseThrow().getAvailableSeats());
+        assertEquals(4, passengerRepository.findSeatNumbersByBusId(outbound).size());
+        bookingService.createBooking(request(outbound, 5, 2), "batch@test.com");
+
+        assertThrows(RuntimeException.class, () -> bookingService.createBookings(
+                List.of(request(outbound, 7, 1), request(outbound, 7, 1)), "batch@test.com"));
+    }
+
+    @Test
+    public void testCancelReleasesSeatsOnceWithoutRescanningTheBus() {
+        Long busId = newBus(10);
+        bookingService.createBooking(request(busId, 1, 1), "batch@test.com");
+        Booking booking = bookingService.createBooking(request(busId, 2, 3), "batch@test.com");
+        assertEquals(6, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+
+        assertThrows(RuntimeException.class, () -> bookingService.cancelBooking(booking.getId(), "someone@test.com"));
+        statistics.clear();
+        bookingService.cancelBooking(booking.getId(), "batch@test.com");
+        // booking lookup, status flip, its seats, clear their claims, seat count, bus read-back
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(9, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+        assertEquals(List.of("S1"), passengerRepository.findSeatNumbersByBusId(busId));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> bookingService.cancelBooking(booking.getId(), "batch@test.com"));
+        assertEquals("Booking is already cancelled", e.getMessage());
+        assertEquals(9, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+
+        // The startup backfill must not hand the seats back to the cancelled passengers
+        passengerRepository.backfillSeatClaims();
+        bookingService.createBooking(request(busId, 2, 3), "batch@test.com");
+        assertEquals(6, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+        assertEquals("CANCELLED", bookingService.getBookingHistory("batch@test.com", null, 50).bookings().stream()
+                .filter(b -> b.id().equals(booking.getId())).findFirst().orElseThrow().status());
+    }
+
+    private Long newBus(int seats) {
+        Bus bus = new Bus();
+        bus.setFromLocation("Chennai");
+        bus.setToLocation("Pondicherry");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(3));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(3).plusHours(4));
+        bus.setPrice(400);
+        bus.setAvailableSeats(seats);
+        return busRepository.save(bus).getId();
+    }
+
+    private BookingRequest request(Long busId, int firstSeat, int passengers) {
+        List<PassengerRequest> passengerRequests = new ArrayList<>();
+        for (int i = 0; i < passengers; i++) {
+            PassengerRequest passenger = new PassengerRequest();
+            passenger.setName("Passenger " + (firstSeat + i));
+            passenger.setAge(30 + i);
+            passenger.setSeatNumber("S" + (firstSeat + i));
+            passengerRequests.add(passenger);
+        }
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(passengerRequests);
+        return request;
+    }
+}
@@ -10,6 +10,7 @@ import com.busbooking.bus_booking_system.repository.BookingRepository;
 import com.busbooking.bus_booking_system.repository.BusRepository;
 import com.busbooking.bus_booking_system.repository.PassengerRepository;
 import com.busbooking.bus_booking_system.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -28,6 +29,9 @@ public class BookingServiceTest {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private BookingRepository bookingRepository;
 
@@ -48,10 +52,10 @@ public class BookingServiceTest {
         user.setEmail("testuser"); // Match the email used in the test
         user.setName("Test User");
 
-        // Mock Bus
+        // Mock Bus, as read back after the conditional decrement
         Bus bus = new Bus();
         bus.setId(1L);
-        bus.setAvailableSeats(10);
+        bus.setAvailableSeats(9);
 
         // Mock Booking Request
         BookingRequest request = new BookingRequest();
@@ -64,10 +68,9 @@ public class BookingServiceTest {
 
         // Mock repository responses
         when(userRepository.findByEmail("testuser")).thenReturn(Optional.of(user)); // Mock findByEmail instead of findByName
+        when(busRepository.claimSeats(1L, 1)).thenReturn(1);
         when(busRepository.findById(1L)).thenReturn(Optional.of(bus));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(passengerRepository.save(any(Passenger.class))).thenAnswer(i -> i.getArguments()[0]);
-        when(busRepository.save(any(Bus.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // Execute test
         Booking booking = bookingService.createBooking(request, "testuser");
@@ -77,13 +80,44 @@ public class BookingServiceTest {
         assertEquals("CONFIRMED", booking.getStatus());
         assertEquals(user, booking.getUser());
         assertEquals(bus, booking.getBus());
-        assertEquals(9, bus.getAvailableSeats()); // 10 - 1 passenger
+        assertEquals(1, booking.getPassengers().size());
+        assertEquals("A1", booking.getPassengers().get(0).getSeatNumber());
 
         // Verify interactions
         verify(userRepository, times(1)).findByEmail("testuser");
         verify(busRepository, times(1)).findById(1L);
         verify(bookingRepository, times(1)).save(any(Booking.class));
-        verify(passengerRepository, times(1)).save(any(Passenger.class));
-        verify(busRepository, times(1)).save(bus);
+        verify(passengerRepository, never()).save(any(Passenger.class)); // persisted through the Booking.passengers cascade
+        verify(busRepository, times(1)).claimSeats(1L, 1); // the seat count is taken by the conditional decrement
+        verify(busRepository, never()).save(bus); // no read-check-write of the seat count
+        verify(bookingRepository, never()).findByBusId(any()); // seat conflicts come from SeatInventory
+    }
+
+    @Test
+    public void testCreateBookingFailsFastWhenSeatsRunOut() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("testuser");
+
+        BookingRequest request = new BookingRequest();
+        request.setBusId(2L);
+        PassengerRequest passengerRequest = new PassengerRequest();
+        passengerRequest.setName("Jane Doe");
+        passengerRequest.setAge(28);
+        passengerRequest.setSeatNumber("B1");
+        request.setPassengers(List.of(passengerRequest));
+
+        when(userRepository.findByEmail("testuser")).thenReturn(Optional.of(user));
+        when(busRepository.claimSeats(2L, 1)).thenReturn(0);
+        when(busRepository.existsById(2L)).thenReturn(true);
+        double rejectedBefore = meterRegistry.counter("booking.rejected", "reason", "insufficient_seats").count();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> bookingService.createBooking(request, "testuser"));
+        assertEquals("Not enough seats available", e.getMessage());
+
+        verify(busRepository, times(1)).claimSeats(2L, 1); // business rejections are not retried
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertEquals(rejectedBefore + 1, meterRegistry.counter("booking.rejected", "reason", "insufficient_seats").count());
+        assertTrue(meterRegistry.get(BookingMetrics.CREATE_BOOKING).tag("outcome", "error").timer().count() >= 1);
     }
 }
\ No newline at end of file
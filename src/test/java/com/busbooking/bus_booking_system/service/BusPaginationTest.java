@@ -0,0 +1,67 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class BusPaginationTest {
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Test
+    public void testKeysetPagesAndStreamCoverTimetableInOrder() {
+        LocalDateTime base = LocalDateTime.of(2030, 3, 1, 6, 0);
+        for (int i = 0; i < 7; i++) {
+            Bus bus = new Bus();
+            bus.setFromLocation("PageFrom");
+            bus.setToLocation("PageTo");
+            // Pairs of buses share a departure time so the id tie-breaker is exercised
+            bus.setDepartureTime(base.plusHours(i / 2));
+            bus.setAvailableSeats(10);
+            busRepository.save(bus);
+        }
+        // Undated buses come last, and a page may hold both kinds
+        for (int i = 0; i < 4; i++) {
+            Bus undated = new Bus();
+            undated.setFromLocation("PageFrom");
+            undated.setToLocation("PageTo");
+            busRepository.save(undated);
+        }
+
+        List<Long> expected = busRepository.findAll().stream()
+                .sorted(Comparator.comparing(Bus::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Bus::getId))
+                .map(Bus::getId)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            BusService.BusPage page = busService.findBusPage(cursor, 3);
+            page.buses().forEach(bus -> paged.add(bus.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(expected, paged);
+
+        List<Long> streamed = new ArrayList<>();
+        busService.streamBuses(bus -> streamed.add(bus.getId()));
+        assertEquals(expected, streamed);
+
+        assertThrows(RuntimeException.class, () -> busService.findBusPage("not-a-cursor", 3));
+    }
+}
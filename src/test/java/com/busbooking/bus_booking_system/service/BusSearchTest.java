@@ -0,0 +1,65 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BusSearchTest {
+
+    @Autowired
+    private BusService busService;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testIndexAndDatabaseAgreeOnFilteredSortedSearch() {
+        LocalDateTime day = LocalDateTime.of(2030, 5, 1, 0, 0);
+        for (int i = 0; i < 12; i++) {
+            Bus bus = new Bus();
+            bus.setFromLocation("SearchFrom");
+            bus.setToLocation("SearchTo");
+            bus.setDepartureTime(day.plusHours(2L * i));
+            bus.setArrivalTime(day.plusHours(2L * i + 5));
+            bus.setPrice(200 + (i * 37) % 300);
+            bus.setAvailableSeats(i % 4 * 5);
+            busService.saveBus(bus);
+        }
+
+        LocalDateTime from = day.plusHours(3);
+        LocalDateTime to = day.plusHours(20);
+        Sort byPriceDesc = BusService.parseSort("price,desc");
+        List<Bus> indexed = busService.findBuses(new BusService.BusSearch("SearchFrom", "SearchTo", from, to, 400.0, 5, byPriceDesc));
+        List<Bus> queried = busRepository.findRouteDepartingBetween("searchfrom", "searchto", from, to, 5, 400.0,
+                byPriceDesc.and(Sort.by("departureTime", "id")));
+
+        assertFalse(indexed.isEmpty());
+        assertEquals(queried.stream().map(Bus::getId).toList(), indexed.stream().map(Bus::getId).toList());
+        for (int i = 0; i < indexed.size(); i++) {
+            Bus bus = indexed.get(i);
+            assertTrue(bus.getPrice() <= 400 && bus.getAvailableSeats() >= 5 && !bus.getDepartureTime().isBefore(from));
+            assertTrue(i == 0 || indexed.get(i - 1).getPrice() >= bus.getPrice());
+        }
+        assertEquals(busRepository.findRoute("searchfrom", "searchto", 0, Double.MAX_VALUE, Sort.by("departureTime", "id"))
+                        .stream().map(Bus::getId).toList(),
+                busService.findBuses(" searchFROM", "SearchTo ").stream().map(Bus::getId).toList());
+        assertThrows(RuntimeException.class, () -> BusService.parseSort("password"));
+
+        String plan = jdbcTemplate.queryForObject("explain select * from bus where from_key = 'searchfrom' " +
+                "and to_key = 'searchto' and departure_time between ? and ?", String.class, from, to);
+        assertTrue(plan.toLowerCase().contains("idx_bus_route_key_departure"), plan);
+    }
+}
\ No newline at end of file
@@ -7,9 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -18,18 +22,47 @@ public class BusServiceTest {
     @Autowired
     private BusService busService;
 
+    @Autowired
+    private RouteIndex routeIndex;
+
     @MockBean
     private BusRepository busRepository;
 
     @Test
     public void testFindBuses() {
         Bus bus = new Bus();
+        bus.setId(1L);
         bus.setFromLocation("CityA");
         bus.setToLocation("CityB");
-        when(busRepository.findByFromLocationAndToLocation("CityA", "CityB")).thenReturn(List.of(bus));
+        bus.setDepartureTime(LocalDateTime.of(2026, 1, 1, 8, 0));
+        when(busRepository.findAll()).thenReturn(List.of(bus));
+        routeIndex.rebuild();
 
         List<Bus> buses = busService.findBuses("CityA", "CityB");
         assertEquals(1, buses.size());
         assertEquals("CityA", buses.get(0).getFromLocation());
+        assertEquals(1, busService.findBuses(" citya", "CITYB ").size());
+        verify(busRepository, never()).findByFromLocationAndToLocation(anyString(), anyString());
+    }
+
+    @Test
+    public void testFindBusesByDepartureWindow() {
+        Bus early = new Bus();
+        early.setId(1L);
+        early.setFromLocation("CityA");
+        early.setToLocation("CityB");
+        early.setDepartureTime(LocalDateTime.of(2026, 1, 1, 8, 0));
+        Bus late = new Bus();
+        late.setId(2L);
+        late.setFromLocation("CityA");
+        late.setToLocation("CityB");
+        late.setDepartureTime(LocalDateTime.of(2026, 1, 1, 20, 0));
+        when(busRepository.findAll()).thenReturn(List.of(late, early));
+        routeIndex.rebuild();
+
+        List<Bus> buses = busService.findBuses("CityA", "CityB", LocalDateTime.of(2026, 1, 1, 12, 0), null);
+        assertEquals(1, buses.size());
+        assertEquals(2L, buses.get(0).getId());
+        assertEquals(List.of(1L, 2L), busService.findBuses("CityA", "CityB").stream().map(Bus::getId).toList());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper(), 100, 60, 5000);
+
+    @Test
+    public void testConcurrentDuplicateWaitsForTheOriginal() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Map<String, Object> request = Map.of("busId", 7);
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("a@test.com", "k1", request, () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ResponseEntity.ok("booking-1");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute("a@test.com", "k1", request, () -> {
+                    runs.incrementAndGet();
+                    return ResponseEntity.ok("booking-2");
+                }));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        assertEquals("booking-1", first.get(5, TimeUnit.SECONDS).getBody());
+        ResponseEntity<?> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals("booking-1", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testKeysAreScopedToTheUserAndServerErrorsAreNotRemembered() {
+        Map<String, Object> request = Map.of("busId", 7);
+        store.execute("a@test.com", "k2", request, () -> ResponseEntity.ok("a"));
+        assertEquals("b", store.execute("b@test.com", "k2", request, () -> ResponseEntity.ok("b")).getBody());
+
+        store.execute("a@test.com", "k3", request, () -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("down"));
+        ResponseEntity<?> retried = store.execute("a@test.com", "k3", request, () -> ResponseEntity.ok("booked"));
+        assertEquals("booked", retried.getBody());
+        assertNull(retried.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testPendingOutcomeKeepsTheKeyUntilItSettles() {
+        Map<String, Object> request = Map.of("busId", 7);
+        CompletableFuture<ResponseEntity<?>> outcome = new CompletableFuture<>();
+        ResponseEntity<?> first = store.execute("a@test.com", "k5", request, () -> {
+            throw new IdempotencyStore.OutcomePendingException(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("pending"), outcome);
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, first.getStatusCode());
+
+        outcome.complete(ResponseEntity.ok("booked late"));
+        ResponseEntity<?> retried = store.execute("a@test.com", "k5", request, () -> ResponseEntity.ok("booked twice"));
+        assertEquals("booked late", retried.getBody());
+        assertEquals("true", retried.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testKeyReusedForADifferentRequestIsRejected() {
+        store.execute("a@test.com", "k4", Map.of("busId", 7), () -> ResponseEntity.ok("a"));
+        ResponseEntity<?> response = store.execute("a@test.com", "k4", Map.of("busId", 8), () -> ResponseEntity.ok("b"));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+}
\ No newline at end of file
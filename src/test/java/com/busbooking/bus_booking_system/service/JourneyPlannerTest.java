@@ -0,0 +1,73 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JourneyPlannerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 15, 0, 0);
+
+    @Test
+    public void testFewestTransfersAndEarliestArrivalWithMinimumTransferTime() {
+        Bus toBangalore = bus(1L, "Chennai", "Bangalore", 8, 0, 14, 0, 20);
+        Bus tightConnection = bus(2L, "Bangalore", "Mysore", 14, 10, 16, 0, 20);
+        Bus connection = bus(3L, "Bangalore", "Mysore", 15, 0, 18, 0, 20);
+        Bus direct = bus(4L, "Chennai", "Mysore", 9, 0, 20, 0, 20);
+        BusRepository busRepository = mock(BusRepository.class);
+        when(busRepository.findAll()).thenReturn(List.of(direct, connection, tightConnection, toBangalore));
+        JourneyPlanner planner = new JourneyPlanner(busRepository, 15, 3);
+        planner.rebuild();
+
+        List<JourneyPlanner.Journey> journeys = planner.plan("chennai", "MYSORE", DAY.withHour(7), 2);
+        assertEquals(2, journeys.size());
+        assertEquals(0, journeys.get(0).transfers());
+        assertEquals(List.of(4L), ids(journeys.get(0)));
+        assertEquals(1, journeys.get(1).transfers());
+        assertEquals(List.of(1L, 3L), ids(journeys.get(1)));
+        assertEquals(DAY.withHour(18), journeys.get(1).arrivalTime());
+
+        // A sold-out leg drops out as soon as its seat count changes
+        Bus soldOut = bus(3L, "Bangalore", "Mysore", 15, 0, 18, 0, 1);
+        soldOut.setVersion(1);
+        planner.onBusChanged(new BusChangedEvent(soldOut));
+        journeys = planner.plan("Chennai", "Mysore", DAY.withHour(7), 2);
+        assertEquals(List.of(List.of(4L)), journeys.stream().map(JourneyPlannerTest::ids).toList());
+
+        // An older change arriving late does not bring the seats back
+        planner.onBusChanged(new BusChangedEvent(bus(3L, "Bangalore", "Mysore", 15, 0, 18, 0, 20)));
+        journeys = planner.plan("Chennai", "Mysore", DAY.withHour(7), 2);
+        assertEquals(List.of(List.of(4L)), journeys.stream().map(JourneyPlannerTest::ids).toList());
+
+        // New buses are spliced in without a rebuild
+        planner.onBusChanged(new BusChangedEvent(bus(5L, "Bangalore", "Mysore", 14, 30, 16, 30, 20)));
+        journeys = planner.plan("Chennai", "Mysore", DAY.withHour(7), 2);
+        assertEquals(List.of(1L, 5L), ids(journeys.get(journeys.size() - 1)));
+        assertTrue(planner.plan("Chennai", "Mysore", DAY.withHour(10), 1).isEmpty());
+        assertTrue(planner.plan("Chennai", "Ooty", DAY.withHour(7), 1).isEmpty());
+        verify(busRepository, times(1)).findAll();
+    }
+
+    private static List<Long> ids(JourneyPlanner.Journey journey) {
+        return journey.legs().stream().map(Bus::getId).toList();
+    }
+
+    private static Bus bus(Long id, String from, String to, int departHour, int departMinute,
+                           int arriveHour, int arriveMinute, int seats) {
+        Bus bus = new Bus();
+        bus.setId(id);
+        bus.setFromLocation(from);
+        bus.setToLocation(to);
+        bus.setDepartureTime(DAY.withHour(departHour).withMinute(departMinute));
+        bus.setArrivalTime(DAY.withHour(arriveHour).withMinute(arriveMinute));
+        bus.setPrice(300);
+        bus.setAvailableSeats(seats);
+        return bus;
+    }
+}
\ No newline at end of file
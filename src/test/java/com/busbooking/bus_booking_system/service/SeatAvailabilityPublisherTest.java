@@ -0,0 +1,160 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import com.busbooking.bus_booking_system.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "booking.seats.stream.coalesce-ms=300")
+@AutoConfigureMockMvc
+public class SeatAvailabilityPublisherTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatAvailabilityPublisher seatAvailabilityPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private BookingWriter bookingWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testBookingsWithinWindowArriveAsOneDeltaForEveryWatcher() throws Exception {
+        String token = jwtUtil.generateToken(user("watcher@test.com"));
+        Long busId = bus();
+
+        MockHttpServletResponse first = mockMvc.perform(get("/api/buses/" + busId + "/seats/stream")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        MockHttpServletResponse second = mockMvc.perform(get("/api/buses/" + busId + "/seats/stream")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertEquals(2, seatAvailabilityPublisher.subscriberCount(busId));
+        assertTrue(first.getContentAsString().startsWith("event:snapshot"));
+        assertTrue(first.getContentAsString().contains("\"availableSeats\":10"));
+
+        bookingService.createBooking(booking(busId, "A1"), "watcher@test.com");
+        bookingService.createBooking(booking(busId, "A2"), "watcher@test.com");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!second.getContentAsString().contains("event:seats") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        for (MockHttpServletResponse response : List.of(first, second)) {
+            String body = response.getContentAsString();
+            assertEquals(1, body.split("event:seats", -1).length - 1, body);
+            assertTrue(body.contains("\"availableSeats\":8,\"booked\":[\"A1\",\"A2\"],\"released\":[]"), body);
+        }
+
+        mockMvc.perform(get("/api/buses/999999/seats/stream").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testHoldsAndRolledBackClaimsReachTheStream() throws Exception {
+        String token = jwtUtil.generateToken(user("rollback-watcher@test.com"));
+        Long busId = bus();
+        MockHttpServletResponse response = mockMvc.perform(get("/api/buses/" + busId + "/seats/stream")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        SeatHoldService.SeatHold hold = seatHoldService.hold(busId, List.of("B1"), "rollback-watcher@test.com");
+        awaitDelta(response, "\"availableSeats\":9,\"booked\":[\"B1\"],\"released\":[]");
+        seatHoldService.release(hold.id(), busId, "rollback-watcher@test.com");
+        awaitDelta(response, "\"availableSeats\":10,\"booked\":[],\"released\":[\"B1\"]");
+
+        // A delta may show a claim still in flight; its rollback takes it back
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BookingRequest request = booking(busId, "C1");
+            bookingWriter.reserveSeats(request, List.of("C1"), "rollback-watcher@test.com");
+            bookingWriter.releaseSeatsOnRollback(request, List.of("C1"));
+            seatAvailabilityPublisher.onSeatsReleased(new SeatsReleasedEvent(busId));
+            awaitDelta(response, "\"availableSeats\":10,\"booked\":[\"C1\"],\"released\":[]");
+            status.setRollbackOnly();
+        });
+        awaitDelta(response, "\"availableSeats\":10,\"booked\":[],\"released\":[\"C1\"]");
+    }
+
+    private static void awaitDelta(MockHttpServletResponse response, String delta) {
+        long deadline = System.currentTimeMillis() + 5000;
+        try {
+            while (!response.getContentAsString().contains(delta) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(response.getContentAsString().contains(delta), response.getContentAsString());
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName("Watcher");
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        return userRepository.save(user);
+    }
+
+    private Long bus() {
+        Bus bus = new Bus();
+        bus.setFromLocation("Madurai");
+        bus.setToLocation("Trichy");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(1));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(3));
+        bus.setPrice(250);
+        bus.setAvailableSeats(10);
+        return busRepository.save(bus).getId();
+    }
+
+    private BookingRequest booking(Long busId, String seat) {
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setName("Passenger " + seat);
+        passenger.setAge(30);
+        passenger.setSeatNumber(seat);
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(List.of(passenger));
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.entity.Booking;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.Hold;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.HoldRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "booking.holds.ttl-seconds=1")
+public class SeatHoldServiceTest {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private SeatCounter seatCounter;
+
+    private Long busId;
+
+    @BeforeEach
+    public void setUp() {
+        for (String email : List.of("holder@test.com", "other@test.com")) {
+            if (userRepository.findByEmail(email).isEmpty()) {
+                User user = new User();
+                user.setName(email);
+                user.setEmail(email);
+                user.setPassword("secret");
+                user.setRole("ROLE_USER");
+                userRepository.save(user);
+            }
+        }
+        Bus bus = new Bus();
+        bus.setFromLocation("Bangalore");
+        bus.setToLocation("Mysore");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(1));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(3));
+        bus.setPrice(300);
+        bus.setAvailableSeats(30);
+        busId = busRepository.save(bus).getId();
+    }
+
+    @Test
+    public void testHoldIsConvertedIntoBooking() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(busId, List.of("A1", "A2"), "holder@test.com");
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(request(null, "A1"), "other@test.com"));
+        assertEquals("Seats A1 are already booked", e.getMessage());
+        assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(request(hold.id(), "A1", "A2"), "other@test.com"));
+
+        Booking booking = bookingService.createBooking(request(hold.id(), "A2", "A1"), "holder@test.com");
+        assertEquals("CONFIRMED", booking.getStatus());
+        assertEquals(28, booking.getBus().getAvailableSeats());
+
+        // A hold can be used only once
+        assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(request(hold.id(), "A1", "A2"), "holder@test.com"));
+    }
+
+    @Test
+    public void testHoldTakesSeatsOffTheCountUntilReleased() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(busId, List.of("D1", "D2"), "holder@test.com");
+        assertEquals(28, availableSeats());
+
+        seatHoldService.release(hold.id(), busId, "holder@test.com");
+        assertEquals(30, availableSeats());
+        assertFalse(seatInventory.isOccupied(busId, "D1"));
+        assertThrows(RuntimeException.class, () -> seatHoldService.release(hold.id(), busId, "holder@test.com"));
+    }
+
+    @Test
+    public void testHoldSurvivesAReloadedSeatMap() {
+        seatHoldService.hold(busId, List.of("E1"), "holder@test.com");
+        seatInventory.invalidate(busId);
+
+        assertTrue(seatInventory.isOccupied(busId, "E1"));
+        assertThrows(RuntimeException.class,
+                () -> bookingService.createBooking(request(null, "E1"), "other@test.com"));
+    }
+
+    @Test
+    public void testHoldSurvivesARolledBackBooking() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(busId, List.of("C1"), "holder@test.com");
+        bookingService.createBooking(request(null, "C2"), "other@test.com");
+
+        // The second group fails after the hold was taken, so the whole batch rolls back
+        assertThrows(RuntimeException.class, () -> bookingService.createBookings(
+                List.of(request(hold.id(), "C1"), request(null, "C2")), "holder@test.com"));
+
+        Booking booking = bookingService.createBooking(request(hold.id(), "C1"), "holder@test.com");
+        assertEquals("CONFIRMED", booking.getStatus());
+    }
+
+    @Test
+    public void testExpiredHoldReleasesSeats() throws InterruptedException {
+        seatHoldService.hold(busId, List.of("B1"), "holder@test.com");
+        assertTrue(seatInventory.isOccupied(busId, "B1"));
+
+        long deadline = System.currentTimeMillis() + 3000;
+        while (seatInventory.isOccupied(busId, "B1") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(seatInventory.isOccupied(busId, "B1"));
+        assertNotNull(bookingService.createBooking(request(null, "B1"), "other@test.com"));
+        assertEquals(29, availableSeats());
+    }
+
+    @Test
+    public void testSweepGivesBackTheSeatsOfAnOrphanedHold() {
+        // What a node that died with a live hold leaves behind: the claimed count and the hold row
+        assertTrue(seatCounter.claimSeats(busId, 2));
+        Hold orphan = new Hold();
+        orphan.setId("orphan-" + busId);
+        orphan.setBusId(busId);
+        orphan.setSeats(2);
+        orphan.setExpiresAt(Instant.now().minusSeconds(3600));
+        holdRepository.save(orphan);
+
+        seatHoldService.sweep();
+        assertEquals(30, availableSeats());
+        assertFalse(holdRepository.existsById(orphan.getId()));
+        seatHoldService.sweep();
+        assertEquals(30, availableSeats());
+    }
+
+    private int availableSeats() {
+        return busRepository.findById(busId).orElseThrow().getAvailableSeats();
+    }
+
+    private BookingRequest request(String holdId, String... seats) {
+        List<PassengerRequest> passengers = Arrays.stream(seats).map(seat -> {
+            PassengerRequest passenger = new PassengerRequest();
+            passenger.setName("Passenger " + seat);
+            passenger.setAge(40);
+            passenger.setSeatNumber(seat);
+            return passenger;
+        }).toList();
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setHoldId(holdId);
+        request.setPassengers(passengers);
+        return request;
+    }
+}
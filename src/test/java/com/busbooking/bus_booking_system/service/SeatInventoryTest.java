@@ -0,0 +1,75 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class SeatInventoryTest {
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @MockBean
+    private PassengerRepository passengerRepository;
+
+    @Test
+    public void testClaimIsAllOrNothing() {
+        when(passengerRepository.findSeatNumbersByBusId(1L)).thenReturn(List.of("A1", "A2"));
+
+        assertEquals(Set.of("A2"), seatInventory.claim(1L, List.of("A2", "A3")));
+        assertFalse(seatInventory.isOccupied(1L, "A3")); // nothing claimed on conflict
+
+        assertTrue(seatInventory.claim(1L, List.of("A3", "A4")).isEmpty());
+        assertEquals(Set.of("A1", "A2", "A3", "A4"), seatInventory.occupiedSeats(1L));
+
+        seatInventory.release(1L, List.of("A1"));
+        assertFalse(seatInventory.isOccupied(1L, "A1"));
+
+        // Loaded once, then kept current in memory
+        verify(passengerRepository, times(1)).findSeatNumbersByBusId(1L);
+    }
+
+    @Test
+    public void testInvalidatedBusIsReloadedFromTheDatabase() {
+        when(passengerRepository.findSeatNumbersByBusId(2L)).thenReturn(List.of("1"));
+        seatInventory.claim(2L, List.of("2"));
+
+        // The claim of seat 2 never reached the database
+        seatInventory.invalidate(2L);
+        assertEquals(Set.of("1"), seatInventory.occupiedSeats(2L));
+        verify(passengerRepository, times(2)).findSeatNumbersByBusId(2L);
+    }
+
+    @Test
+    public void testVerifyRebuildsABusThatKeepsDrifting() {
+        when(passengerRepository.findSeatNumbersByBusId(4L)).thenReturn(List.of("1"));
+        assertTrue(seatInventory.verify(4L)); // not cached yet
+        seatInventory.claim(4L, List.of("2"));
+
+        // Seat 2 never reached the database, but the first check cannot tell a leak from a booking in flight
+        assertFalse(seatInventory.verify(4L));
+        assertTrue(seatInventory.isOccupied(4L, "2"));
+        assertFalse(seatInventory.verify(4L));
+        assertEquals(Set.of("1"), seatInventory.occupiedSeats(4L));
+        assertTrue(seatInventory.verify(4L));
+    }
+
+    @Test
+    public void testBitmapGrowsBeyondOneWord() {
+        when(passengerRepository.findSeatNumbersByBusId(3L)).thenReturn(List.of());
+        for (int seat = 1; seat <= 150; seat++) {
+            assertTrue(seatInventory.claim(3L, List.of(String.valueOf(seat))).isEmpty());
+        }
+        assertEquals(150, seatInventory.occupiedSeats(3L).size());
+        assertEquals(Set.of("150"), seatInventory.claim(3L, List.of("150")));
+    }
+}
@@ -0,0 +1,133 @@
+package com.busbooking.bus_booking_system.service;
+
+import com.busbooking.bus_booking_system.controller.BookingRequest;
+import com.busbooking.bus_booking_system.controller.PassengerRequest;
+import com.busbooking.bus_booking_system.entity.Bus;
+import com.busbooking.bus_booking_system.entity.User;
+import com.busbooking.bus_booking_system.repository.BusRepository;
+import com.busbooking.bus_booking_system.repository.PassengerRepository;
+import com.busbooking.bus_booking_system.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = {"booking.engine.mode=sharded", "booking.engine.shards=2"})
+public class ShardedBookingEngineTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @SpyBean
+    private SeatCounter seatCounter;
+
+    @Test
+    public void testConcurrentBookingsNeverOversell() throws Exception {
+        User user = new User();
+        user.setName("Shard User");
+        user.setEmail("shard@test.com");
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+
+        Bus bus = new Bus();
+        bus.setFromLocation("Chennai");
+        bus.setToLocation("Madurai");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(2));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(2).plusHours(8));
+        bus.setPrice(600);
+        bus.setAvailableSeats(20);
+        Long busId = busRepository.save(bus).getId();
+
+        // 40 buyers compete for 20 seats across 25 seat numbers, so some ask for the same seat
+        ExecutorService buyers = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String seat = String.valueOf(i % 25 + 1);
+            results.add(buyers.submit(() -> {
+                try {
+                    bookingService.createBooking(request(busId, seat), "shard@test.com");
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        int booked = 0;
+        for (Future<Boolean> result : results) {
+            booked += result.get() ? 1 : 0;
+        }
+        buyers.shutdown();
+
+        List<String> seats = passengerRepository.findSeatNumbersByBusId(busId);
+        assertEquals(20, booked);
+        assertEquals(20, seats.size());
+        assertEquals(20, new HashSet<>(seats).size());
+        assertEquals(0, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    public void testFailedCountClaimFreesTheSeat() {
+        User user = new User();
+        user.setName("Claim User");
+        user.setEmail("claim@test.com");
+        user.setPassword("secret");
+        user.setRole("ROLE_USER");
+        userRepository.save(user);
+
+        Bus bus = new Bus();
+        bus.setFromLocation("Chennai");
+        bus.setToLocation("Trichy");
+        bus.setDepartureTime(LocalDateTime.now().plusDays(2));
+        bus.setArrivalTime(LocalDateTime.now().plusDays(2).plusHours(5));
+        bus.setPrice(400);
+        bus.setAvailableSeats(5);
+        Long busId = busRepository.save(bus).getId();
+
+        doThrow(new QueryTimeoutException("Lock wait timeout"))
+                .doCallRealMethod()
+                .when(seatCounter).claimSeats(eq(busId), anyInt());
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking(request(busId, "7"), "claim@test.com"));
+        assertFalse(seatInventory.isOccupied(busId, "7"));
+
+        assertNotNull(bookingService.createBooking(request(busId, "7"), "claim@test.com"));
+        assertEquals(4, busRepository.findById(busId).orElseThrow().getAvailableSeats());
+    }
+
+    private BookingRequest request(Long busId, String seatNumber) {
+        PassengerRequest passenger = new PassengerRequest();
+        passenger.setName("Passenger " + seatNumber);
+        passenger.setAge(30);
+        passenger.setSeatNumber(seatNumber);
+        BookingRequest request = new BookingRequest();
+        request.setBusId(busId);
+        request.setPassengers(List.of(passenger));
+        return request;
+    }
+}